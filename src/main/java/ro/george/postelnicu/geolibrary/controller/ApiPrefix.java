@@ -2,6 +2,11 @@ package ro.george.postelnicu.geolibrary.controller;
 
 public interface ApiPrefix {
     String BULK = "/bulk";
+    String SUGGEST = "/suggest";
+    String IMPORT = "/import";
+    String EXPORT = "/export";
+    String USAGE = "/usage";
+    String PUBLISHERS = "/publishers";
     String AUTHORS = "/api/authors";
     String BOOKS = "/api/books";
     String KEYWORDS = "/api/keywords";
@@ -4,45 +4,61 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.BulkItemsDto;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.NameUsageDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionsDto;
+import ro.george.postelnicu.geolibrary.dto.UsageDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorsDto;
-import ro.george.postelnicu.geolibrary.dto.author.AuthorsResponseDto;
 import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
 import ro.george.postelnicu.geolibrary.model.Author;
 import ro.george.postelnicu.geolibrary.service.AuthorService;
+import ro.george.postelnicu.geolibrary.service.SuggestionService;
+import ro.george.postelnicu.geolibrary.util.CursorUtil;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 
 import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import static java.util.Objects.nonNull;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.AUTHORS;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BULK;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.SUGGEST;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.USAGE;
 
 @RestController
 @RequestMapping(AUTHORS)
 @Validated
 public class AuthorController {
     private final AuthorService service;
+    private final SuggestionService suggestionService;
 
-    public AuthorController(AuthorService service) {
+    public AuthorController(AuthorService service, SuggestionService suggestionService) {
         this.service = service;
+        this.suggestionService = suggestionService;
     }
 
     @PostMapping(value = BULK,
-            produces = APPLICATION_JSON_VALUE,
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
-    public ResponseEntity<AuthorsResponseDto> createBulk(@Valid @RequestBody AuthorsDto authorsDto) {
-        List<Author> authors = service.createBulk(authorsDto);
-        List<AuthorResponseDto> responseDtos = authors.stream()
-                .map(LibraryMapper.INSTANCE::toAuthorResponseDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok().body(AuthorsResponseDto.of(responseDtos));
+    public ResponseEntity<BulkItemsDto> createBulk(@Valid @RequestBody AuthorsDto authorsDto) {
+        List<BulkItemDto> responseDtos = service.createBulk(authorsDto).stream()
+                .map(LibraryMapper.INSTANCE::toBulkItemDto)
+                .toList();
+        return ResponseEntity.ok().body(BulkItemsDto.of(responseDtos));
     }
 
-    @PostMapping(produces = APPLICATION_JSON_VALUE,
+    @PostMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<AuthorResponseDto> create(@Valid @RequestBody AuthorDto authorDto) {
         Author author = service.create(authorDto);
@@ -50,28 +66,74 @@ public class AuthorController {
                 .buildAndExpand(author.getId()).toUri();
         AuthorResponseDto responseDto = LibraryMapper.INSTANCE.toAuthorResponseDto(author);
 
-        return ResponseEntity.created(location).body(responseDto);
+        return ResponseEntity.created(location).eTag(ETagUtil.of(author.getVersion())).body(responseDto);
     }
 
-    @GetMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<AuthorResponseDto> read(@PathVariable Long id) {
+    /**
+     * Scrolls through the authors in name order, optionally only those starting with a prefix.
+     *
+     * @param counts whether to send how many books use each author
+     */
+    @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CursorPageDto<NameUsageDto>> list(
+            @RequestParam(name = "prefix", defaultValue = "") String prefix,
+            @RequestParam(name = "after", defaultValue = "") String after,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "counts", defaultValue = "false") boolean counts) {
+        int pageSize = Math.max(1, Math.min(size, CursorPageDto.MAX_SIZE));
+        String afterName = after.isBlank() ? null : CursorUtil.decodeString(after);
+        List<Author> authors = service.list(prefix, afterName, pageSize + 1);
+
+        List<NameUsageDto> content = authors.stream()
+                .limit(pageSize)
+                .map(author -> new NameUsageDto(author.getId(), author.getName(), counts ? author.getBookCount() : null))
+                .toList();
+        String nextCursor = authors.size() > pageSize ? CursorUtil.encode(authors.get(pageSize - 1).getNameNorm()) : null;
+        return ResponseEntity.ok(CursorPageDto.of(content, pageSize, nextCursor));
+    }
+
+    @GetMapping(value = SUGGEST, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<SuggestionsDto> suggest(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                  @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        List<SuggestionDto> suggestions = suggestionService.suggestAuthors(prefix, limit).stream()
+                .map(LibraryMapper.INSTANCE::toSuggestionDto)
+                .toList();
+
+        return ResponseEntity.ok(SuggestionsDto.of(suggestions));
+    }
+
+    @GetMapping(value = "/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<AuthorResponseDto> read(@PathVariable Long id,
+                                                  @RequestHeader(name = IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (nonNull(ifNoneMatch)) {
+            long version = service.readVersion(id);
+            if (ETagUtil.matches(ifNoneMatch, version, false)) {
+                return ResponseEntity.status(NOT_MODIFIED).eTag(ETagUtil.of(version)).build();
+            }
+        }
         Author author = service.read(id);
         AuthorResponseDto responseDto = LibraryMapper.INSTANCE.toAuthorResponseDto(author);
 
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(author.getVersion())).body(responseDto);
+    }
+
+    @GetMapping(value = "/{id}" + USAGE, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<UsageDto> usage(@PathVariable Long id) {
+        return ResponseEntity.ok(new UsageDto(id, service.countBooks(id)));
     }
 
     @PutMapping(value = "/{id}",
-            produces = APPLICATION_JSON_VALUE,
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<AuthorResponseDto> update(@PathVariable Long id,
-                                                    @Valid @RequestBody AuthorDto authorDto) {
-        Author author = service.update(id, authorDto);
+                                                    @Valid @RequestBody AuthorDto authorDto,
+                                                    @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Author author = service.update(id, authorDto, ETagUtil.ifMatch(ifMatch));
         AuthorResponseDto responseDto = LibraryMapper.INSTANCE.toAuthorResponseDto(author);
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(author.getVersion())).body(responseDto);
     }
 
-    @DeleteMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
+    @DeleteMapping(value = "/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.delete(id);
 
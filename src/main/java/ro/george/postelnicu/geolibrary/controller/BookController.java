@@ -1,67 +1,175 @@
 package ro.george.postelnicu.geolibrary.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionsDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookFacetedPageDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookPatchDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookSearchRequestDto;
 import ro.george.postelnicu.geolibrary.mapper.BookMapper;
+import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookFacets;
+import ro.george.postelnicu.geolibrary.model.BookField;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
 import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
-import ro.george.postelnicu.geolibrary.model.CoverType;
+import ro.george.postelnicu.geolibrary.model.CountMode;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+import ro.george.postelnicu.geolibrary.service.BookExportService;
+import ro.george.postelnicu.geolibrary.service.BookResponseCache;
+import ro.george.postelnicu.geolibrary.service.BookResponseCache.SerializedBook;
 import ro.george.postelnicu.geolibrary.service.BookSearchService;
 import ro.george.postelnicu.geolibrary.service.BookService;
+import ro.george.postelnicu.geolibrary.service.SuggestionService;
+import ro.george.postelnicu.geolibrary.util.CursorUtil;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.nonNull;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
-import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BOOKS;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.*;
+import static ro.george.postelnicu.geolibrary.controller.BookImportController.TEXT_CSV_VALUE;
 
 @RestController
 @RequestMapping(BOOKS)
 @Validated
 public class BookController {
+    private static final String GZIP = "gzip";
+    // ranked below JSON, so the JSON handler is the one picked for */* or a request without an Accept header
+    private static final String CBOR_BELOW_JSON = APPLICATION_CBOR_VALUE + ";q=0.9";
+    private static final String RELATION = "/{id}/{relation:authors|keywords|languages}/{name}";
     private final BookService service;
     private final BookSearchService searchService;
+    private final SuggestionService suggestionService;
+    private final BookExportService exportService;
+    private final BookResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
-    public BookController(BookService service, BookSearchService searchService) {
+    public BookController(BookService service, BookSearchService searchService,
+                          SuggestionService suggestionService, BookExportService exportService,
+                          BookResponseCache responseCache, ObjectMapper objectMapper) {
         this.service = service;
         this.searchService = searchService;
+        this.suggestionService = suggestionService;
+        this.exportService = exportService;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * @param count  how the total is counted; an estimate capped at the configured limit unless EXACT is asked for
+     * @param fields comma separated properties of the books to send, which may include the summary view; all of them
+     *               when not given
+     */
     @GetMapping()
-    ResponseEntity<Page<BookResponseDto>> searchBooks(
+    ResponseEntity<Slice<?>> searchBooks(
             @RequestParam(name = "page", defaultValue = "0") Integer page,
             @RequestParam(name = "size", defaultValue = "20") Integer size,
-            @RequestParam(name = "name", required = false) String name,
-            @RequestParam(name = "full_title", required = false) String fullTitle,
-            @RequestParam(name = "description", required = false) String description,
-            @RequestParam(name = "isbn", required = false) String isbn,
-            @RequestParam(name = "barcode", required = false) String barcode,
-            @RequestParam(name = "authors", required = false) Set<String> authors,
-            @RequestParam(name = "keywords", required = false) Set<String> keywords,
-            @RequestParam(name = "languages", required = false) Set<String> languages,
-            @RequestParam(name = "publisher", required = false) String publisher,
-            @RequestParam(name = "cover_type", required = false) CoverType coverType,
-            @RequestParam(name = "min_year", required = false) Integer minYear,
-            @RequestParam(name = "max_year", required = false) Integer maxYear,
-            @RequestParam(name = "min_pages", required = false) Integer minPages,
-            @RequestParam(name = "max_pages", required = false) Integer maxPages
+            @RequestParam(name = "count", defaultValue = "ESTIMATE") CountMode count,
+            @RequestParam(name = "fields", required = false) String fields,
+            BookSearchRequestDto searchRequest
     ) {
-        BookSearchCriteria searchCriteria = new BookSearchCriteria(name, fullTitle, description,
-                isbn, barcode, authors, keywords, languages,
-                publisher, coverType, minYear, maxYear, minPages, maxPages);
-        Page<BookResponseDto> bookResponseDtos = searchService.search(searchCriteria,
-                        PageRequest.of(page, size))
-                .map(BookMapper.INSTANCE::toBookResponseDto);
-        return ResponseEntity.ok(bookResponseDtos);
+        BookSearchCriteria searchCriteria = BookMapper.INSTANCE.toBookSearchCriteria(searchRequest);
+        PageRequest pageRequest = PageRequest.of(page, size);
+        Set<BookField> bookFields = BookField.parse(fields);
+        Slice<BookResponseDto> bookResponseDtos = switch (count) {
+            case EXACT -> searchService.searchViews(searchCriteria, pageRequest, bookFields);
+            case ESTIMATE -> searchService.searchViewsWithEstimatedCount(searchCriteria, pageRequest, bookFields);
+            case NONE -> searchService.searchSliceViews(searchCriteria, pageRequest, bookFields);
+        };
+        if (bookFields.equals(BookField.ALL)) {
+            return ResponseEntity.ok(bookResponseDtos);
+        }
+        return ResponseEntity.ok(bookResponseDtos.map(book -> project(book, bookFields)));
     }
 
-    @PostMapping(produces = APPLICATION_JSON_VALUE,
+    @GetMapping(params = {"facets=true", "!after"})
+    ResponseEntity<BookFacetedPageDto> searchBooksWithFacets(
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            BookSearchRequestDto searchRequest
+    ) {
+        BookSearchCriteria searchCriteria = BookMapper.INSTANCE.toBookSearchCriteria(searchRequest);
+        Page<BookResponseDto> bookResponseDtos = searchService.searchViews(searchCriteria, PageRequest.of(page, size),
+                BookField.ALL);
+        BookFacets facets = searchService.facets(searchCriteria);
+
+        return ResponseEntity.ok(BookFacetedPageDto.of(bookResponseDtos, facets));
+    }
+
+    @GetMapping(params = "after")
+    ResponseEntity<CursorPageDto<BookResponseDto>> scrollBooks(
+            @RequestParam(name = "after") String after,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            BookSearchRequestDto searchRequest
+    ) {
+        BookSearchCriteria searchCriteria = BookMapper.INSTANCE.toBookSearchCriteria(searchRequest);
+        Long afterId = after.isBlank() ? null : CursorUtil.decodeLong(after);
+        Window<BookResponseDto> window = searchService.scrollViews(searchCriteria, afterId, size);
+
+        List<BookResponseDto> content = window.getContent();
+        String nextCursor = window.hasNext() ? CursorUtil.encode(content.getLast().getId()) : null;
+        return ResponseEntity.ok(CursorPageDto.of(content, size, nextCursor));
+    }
+
+    /**
+     * Streams every matching book as NDJSON, or as CSV when the client accepts text/csv.
+     */
+    @GetMapping(value = EXPORT, produces = APPLICATION_NDJSON_VALUE)
+    void exportBooks(BookSearchRequestDto searchRequest, HttpServletResponse response) throws IOException {
+        export(searchRequest, ImportFormat.NDJSON, APPLICATION_NDJSON_VALUE, response);
+    }
+
+    @GetMapping(value = EXPORT, produces = TEXT_CSV_VALUE)
+    void exportBooksAsCsv(BookSearchRequestDto searchRequest, HttpServletResponse response) throws IOException {
+        export(searchRequest, ImportFormat.CSV, TEXT_CSV_VALUE, response);
+    }
+
+    @GetMapping(value = PUBLISHERS + SUGGEST, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    ResponseEntity<SuggestionsDto> suggestPublishers(
+            @RequestParam(name = "prefix", defaultValue = "") String prefix,
+            @RequestParam(name = "limit", defaultValue = "10") Integer limit
+    ) {
+        List<SuggestionDto> suggestions = suggestionService.suggestPublishers(prefix, limit).stream()
+                .map(LibraryMapper.INSTANCE::toSuggestionDto)
+                .toList();
+
+        return ResponseEntity.ok(SuggestionsDto.of(suggestions));
+    }
+
+    @PostMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     ResponseEntity<BookResponseDto> create(@RequestBody BookDto bookDto) {
         Book book = service.create(bookDto);
@@ -69,28 +177,128 @@ public class BookController {
                 .buildAndExpand(book.getId()).toUri();
         BookResponseDto responseDto = BookMapper.INSTANCE.toBookResponseDto(book);
 
-        return ResponseEntity.created(location).body(responseDto);
+        return ResponseEntity.created(location).eTag(ETagUtil.of(book.getVersion())).body(responseDto);
     }
 
-    @GetMapping("/{id}")
-    ResponseEntity<BookResponseDto> read(@PathVariable Long id) {
-        Book book = service.read(id);
+    /**
+     * The whole book is written from the {@link BookResponseCache}, gzip compressed when the client accepts it;
+     * a subset of the fields is encoded on every request.
+     *
+     * @param fields as for {@link #searchBooks}
+     */
+    @GetMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
+    ResponseEntity<?> read(@PathVariable Long id,
+                           @RequestParam(name = "fields", required = false) String fields,
+                           @RequestHeader(name = IF_NONE_MATCH, required = false) String ifNoneMatch,
+                           @RequestHeader(name = ACCEPT_ENCODING, defaultValue = "") String acceptEncoding) {
+        Set<BookField> bookFields = BookField.parse(fields);
+        if (!bookFields.equals(BookField.ALL)) {
+            return readUncached(id, bookFields, ifNoneMatch);
+        }
 
-        BookResponseDto responseDto = BookMapper.INSTANCE.toBookResponseDto(book);
+        SerializedBook book = responseCache.get(id, () -> service.readView(id));
+        boolean gzip = nonNull(book.gzip()) && acceptsGzip(acceptEncoding);
+        String eTag = gzip ? ETagUtil.gzipped(book.version()) : ETagUtil.of(book.version());
+        if (nonNull(ifNoneMatch) && ETagUtil.matches(ifNoneMatch, book.version(), false)) {
+            return ResponseEntity.status(NOT_MODIFIED).eTag(eTag).varyBy(ACCEPT, ACCEPT_ENCODING).build();
+        }
 
-        return ResponseEntity.ok().body(responseDto);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .varyBy(ACCEPT, ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(CONTENT_ENCODING, GZIP).body(book.gzip());
+        }
+        return response.body(book.json());
+    }
+
+    /**
+     * Encoded on every request; JSON is preferred when the client accepts both without ranking them.
+     *
+     * @param fields as for {@link #searchBooks}
+     */
+    @GetMapping(value = "/{id}", produces = CBOR_BELOW_JSON)
+    ResponseEntity<?> readAsCbor(@PathVariable Long id,
+                                 @RequestParam(name = "fields", required = false) String fields,
+                                 @RequestHeader(name = IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return readUncached(id, BookField.parse(fields), ifNoneMatch);
     }
 
     @PutMapping("/{id}")
-    ResponseEntity<BookResponseDto> update(@RequestBody BookDto newBook, @PathVariable Long id) {
-        Book updated = service.update(id, newBook);
+    ResponseEntity<BookResponseDto> update(@RequestBody BookDto newBook, @PathVariable Long id,
+                                           @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Book updated = service.update(id, newBook, ETagUtil.ifMatch(ifMatch));
 
         BookResponseDto responseDto = BookMapper.INSTANCE.toBookResponseDto(updated);
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(updated.getVersion())).body(responseDto);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = APPLICATION_JSON_VALUE)
+    ResponseEntity<Void> patch(@Valid @RequestBody BookPatchDto patchDto, @PathVariable Long id,
+                               @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Book patched = service.patch(id, patchDto, ETagUtil.ifMatch(ifMatch));
+
+        return ResponseEntity.noContent().eTag(ETagUtil.of(patched.getVersion())).build();
+    }
+
+    @PostMapping(RELATION)
+    ResponseEntity<Void> addRelation(@PathVariable Long id, @PathVariable String relation, @PathVariable String name,
+                                     @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        long version = service.addRelation(id, BookRelation.fromPath(relation), name, ETagUtil.ifMatch(ifMatch));
+
+        return ResponseEntity.noContent().eTag(ETagUtil.of(version)).build();
+    }
+
+    @DeleteMapping(RELATION)
+    ResponseEntity<Void> removeRelation(@PathVariable Long id, @PathVariable String relation, @PathVariable String name,
+                                        @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        long version = service.removeRelation(id, BookRelation.fromPath(relation), name, ETagUtil.ifMatch(ifMatch));
+
+        return ResponseEntity.noContent().eTag(ETagUtil.of(version)).build();
     }
 
     @DeleteMapping("/{id}")
     void delete(@PathVariable Long id) {
         service.delete(id);
     }
+
+    private void export(BookSearchRequestDto searchRequest, ImportFormat format, String contentType,
+                        HttpServletResponse response) throws IOException {
+        BookSearchCriteria searchCriteria = BookMapper.INSTANCE.toBookSearchCriteria(searchRequest);
+        response.setContentType(contentType);
+        response.setCharacterEncoding(UTF_8.name());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), UTF_8));
+        exportService.export(searchCriteria, format, writer);
+    }
+
+    private ResponseEntity<?> readUncached(Long id, Set<BookField> fields, String ifNoneMatch) {
+        if (nonNull(ifNoneMatch)) {
+            long version = service.readVersion(id);
+            if (ETagUtil.matches(ifNoneMatch, version, false)) {
+                return ResponseEntity.status(NOT_MODIFIED).eTag(ETagUtil.of(version)).build();
+            }
+        }
+        if (!fields.equals(BookField.ALL)) {
+            BookResponseDto responseDto = service.readView(id, fields);
+            return ResponseEntity.ok().eTag(ETagUtil.of(responseDto.getVersion())).body(project(responseDto, fields));
+        }
+        BookResponseDto responseDto = service.readView(id);
+        return ResponseEntity.ok().eTag(ETagUtil.of(responseDto.getVersion())).body(responseDto);
+    }
+
+    /**
+     * Drops the properties that were not requested, rather than sending them as nulls.
+     */
+    private ObjectNode project(BookResponseDto book, Set<BookField> fields) {
+        ObjectNode node = objectMapper.valueToTree(book);
+        node.retain(fields.stream().map(BookField::getProperty).toList());
+        return node;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.split(";")[0].trim())
+                .anyMatch(coding -> coding.equalsIgnoreCase(GZIP));
+    }
 }
@@ -0,0 +1,51 @@
+package ro.george.postelnicu.geolibrary.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+import ro.george.postelnicu.geolibrary.service.BookImportService;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BOOKS;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.IMPORT;
+
+/**
+ * Streams the request body through the import and the per-record report back, so neither is held in memory.
+ */
+@RestController
+@RequestMapping(BOOKS)
+public class BookImportController {
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final BookImportService service;
+
+    public BookImportController(BookImportService service) {
+        this.service = service;
+    }
+
+    @PostMapping(value = IMPORT, consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+            produces = APPLICATION_NDJSON_VALUE)
+    void importBooks(@RequestHeader(CONTENT_TYPE) MediaType contentType, HttpServletRequest request,
+                     HttpServletResponse response) throws IOException {
+        ImportFormat format = MediaType.valueOf(TEXT_CSV_VALUE).includes(contentType) ?
+                ImportFormat.CSV : ImportFormat.NDJSON;
+        Charset charset = Optional.ofNullable(contentType.getCharset()).orElse(UTF_8);
+
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(UTF_8.name());
+        Reader reader = new InputStreamReader(request.getInputStream(), charset);
+        Writer report = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), UTF_8));
+        service.importBooks(reader, format, report);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -14,6 +15,9 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import ro.george.postelnicu.geolibrary.dto.ErrorDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
+import ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException;
+import ro.george.postelnicu.geolibrary.exception.InvalidCursorException;
+import ro.george.postelnicu.geolibrary.exception.InvalidFieldException;
 
 import java.util.Collections;
 import java.util.UUID;
@@ -25,6 +29,7 @@ import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 public class GlobalControllerAdvice extends ResponseEntityExceptionHandler {
     private static final Logger log = LoggerFactory.getLogger(GlobalControllerAdvice.class);
     public static final String BAD_REQUEST_ERROR_TYPE = "Bad Request";
+    public static final String PRECONDITION_FAILED_ERROR_TYPE = "Precondition Failed";
     public static final String APPLICATION_ERROR_TYPE = "Application Error";
 
     @ResponseBody
@@ -59,6 +64,38 @@ public class GlobalControllerAdvice extends ResponseEntityExceptionHandler {
                 request);
     }
 
+    @ResponseBody
+    @ExceptionHandler({InvalidCursorException.class, InvalidFieldException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    ResponseEntity<Object> handleInvalidParameter(RuntimeException ex, WebRequest request) {
+        log.error("handleInvalidParameter: ", ex);
+        return handleExceptionInternal(ex, new ErrorDto(
+                        UUID.randomUUID().toString(),
+                        BAD_REQUEST_ERROR_TYPE,
+                        ex.getMessage(),
+                        Collections.emptySet(),
+                        HttpStatus.resolve(HttpStatus.BAD_REQUEST.value())),
+                getProblemJsonHeader(),
+                HttpStatus.BAD_REQUEST,
+                request);
+    }
+
+    @ResponseBody
+    @ExceptionHandler({EntityVersionMismatchException.class, OptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    ResponseEntity<Object> handleVersionMismatch(RuntimeException ex, WebRequest request) {
+        log.error("handleVersionMismatch: ", ex);
+        return handleExceptionInternal(ex, new ErrorDto(
+                        UUID.randomUUID().toString(),
+                        PRECONDITION_FAILED_ERROR_TYPE,
+                        ex.getMessage(),
+                        Collections.emptySet(),
+                        HttpStatus.resolve(HttpStatus.PRECONDITION_FAILED.value())),
+                getProblemJsonHeader(),
+                HttpStatus.PRECONDITION_FAILED,
+                request);
+    }
+
     @ResponseBody
     @ExceptionHandler({Exception.class})
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -4,21 +4,36 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.BulkItemsDto;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.NameUsageDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionsDto;
+import ro.george.postelnicu.geolibrary.dto.UsageDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordsDto;
-import ro.george.postelnicu.geolibrary.dto.keyword.KeywordsResponseDto;
 import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
 import ro.george.postelnicu.geolibrary.model.Keyword;
 import ro.george.postelnicu.geolibrary.service.KeywordService;
+import ro.george.postelnicu.geolibrary.service.SuggestionService;
+import ro.george.postelnicu.geolibrary.util.CursorUtil;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 
 import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import static java.util.Objects.nonNull;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BULK;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.SUGGEST;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.USAGE;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.KEYWORDS;
 
 @RestController
@@ -26,23 +41,24 @@ import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.KEYWORDS;
 @Validated
 public class KeywordController {
     private final KeywordService service;
+    private final SuggestionService suggestionService;
 
-    public KeywordController(KeywordService service) {
+    public KeywordController(KeywordService service, SuggestionService suggestionService) {
         this.service = service;
+        this.suggestionService = suggestionService;
     }
 
     @PostMapping(value = BULK,
-            produces = APPLICATION_JSON_VALUE,
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
-    public ResponseEntity<KeywordsResponseDto> createBulk(@Valid @RequestBody KeywordsDto keywordsDto) {
-        List<Keyword> keywords = service.createBulk(keywordsDto);
-        List<KeywordResponseDto> responseDtos = keywords.stream()
-                .map(LibraryMapper.INSTANCE::toKeywordResponseDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok().body(KeywordsResponseDto.of(responseDtos));
+    public ResponseEntity<BulkItemsDto> createBulk(@Valid @RequestBody KeywordsDto keywordsDto) {
+        List<BulkItemDto> responseDtos = service.createBulk(keywordsDto).stream()
+                .map(LibraryMapper.INSTANCE::toBulkItemDto)
+                .toList();
+        return ResponseEntity.ok().body(BulkItemsDto.of(responseDtos));
     }
 
-    @PostMapping(produces = APPLICATION_JSON_VALUE,
+    @PostMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<KeywordResponseDto> create(@Valid @RequestBody KeywordDto keywordDto) {
         Keyword keyword = service.create(keywordDto);
@@ -50,28 +66,74 @@ public class KeywordController {
                 .buildAndExpand(keyword.getId()).toUri();
         KeywordResponseDto responseDto = LibraryMapper.INSTANCE.toKeywordResponseDto(keyword);
 
-        return ResponseEntity.created(location).body(responseDto);
+        return ResponseEntity.created(location).eTag(ETagUtil.of(keyword.getVersion())).body(responseDto);
     }
 
-    @GetMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<KeywordResponseDto> read(@PathVariable Long id) {
+    /**
+     * Scrolls through the keywords in name order, optionally only those starting with a prefix.
+     *
+     * @param counts whether to send how many books use each keyword
+     */
+    @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CursorPageDto<NameUsageDto>> list(
+            @RequestParam(name = "prefix", defaultValue = "") String prefix,
+            @RequestParam(name = "after", defaultValue = "") String after,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "counts", defaultValue = "false") boolean counts) {
+        int pageSize = Math.max(1, Math.min(size, CursorPageDto.MAX_SIZE));
+        String afterName = after.isBlank() ? null : CursorUtil.decodeString(after);
+        List<Keyword> keywords = service.list(prefix, afterName, pageSize + 1);
+
+        List<NameUsageDto> content = keywords.stream()
+                .limit(pageSize)
+                .map(keyword -> new NameUsageDto(keyword.getId(), keyword.getName(), counts ? keyword.getBookCount() : null))
+                .toList();
+        String nextCursor = keywords.size() > pageSize ? CursorUtil.encode(keywords.get(pageSize - 1).getNameNorm()) : null;
+        return ResponseEntity.ok(CursorPageDto.of(content, pageSize, nextCursor));
+    }
+
+    @GetMapping(value = SUGGEST, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<SuggestionsDto> suggest(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                  @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        List<SuggestionDto> suggestions = suggestionService.suggestKeywords(prefix, limit).stream()
+                .map(LibraryMapper.INSTANCE::toSuggestionDto)
+                .toList();
+
+        return ResponseEntity.ok(SuggestionsDto.of(suggestions));
+    }
+
+    @GetMapping(value = "/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<KeywordResponseDto> read(@PathVariable Long id,
+                                                   @RequestHeader(name = IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (nonNull(ifNoneMatch)) {
+            long version = service.readVersion(id);
+            if (ETagUtil.matches(ifNoneMatch, version, false)) {
+                return ResponseEntity.status(NOT_MODIFIED).eTag(ETagUtil.of(version)).build();
+            }
+        }
         Keyword keyword = service.read(id);
         KeywordResponseDto responseDto = LibraryMapper.INSTANCE.toKeywordResponseDto(keyword);
 
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(keyword.getVersion())).body(responseDto);
+    }
+
+    @GetMapping(value = "/{id}" + USAGE, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<UsageDto> usage(@PathVariable Long id) {
+        return ResponseEntity.ok(new UsageDto(id, service.countBooks(id)));
     }
 
     @PutMapping(value = "/{id}",
-            produces = APPLICATION_JSON_VALUE,
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<KeywordResponseDto> update(@PathVariable Long id,
-                                                     @Valid @RequestBody KeywordDto keywordDto) {
-        Keyword keyword = service.update(id, keywordDto);
+                                                     @Valid @RequestBody KeywordDto keywordDto,
+                                                     @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Keyword keyword = service.update(id, keywordDto, ETagUtil.ifMatch(ifMatch));
         KeywordResponseDto responseDto = LibraryMapper.INSTANCE.toKeywordResponseDto(keyword);
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(keyword.getVersion())).body(responseDto);
     }
 
-    @DeleteMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
+    @DeleteMapping(value = "/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.delete(id);
 
@@ -6,20 +6,36 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.BulkItemsDto;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.NameUsageDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionsDto;
+import ro.george.postelnicu.geolibrary.dto.UsageDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguagesDto;
-import ro.george.postelnicu.geolibrary.dto.language.LanguagesResponseDto;
 import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
 import ro.george.postelnicu.geolibrary.model.Language;
 import ro.george.postelnicu.geolibrary.service.LanguageService;
+import ro.george.postelnicu.geolibrary.service.SuggestionService;
+import ro.george.postelnicu.geolibrary.util.CursorUtil;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 
 import java.net.URI;
 import java.util.List;
 
+import static java.util.Objects.nonNull;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BULK;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.SUGGEST;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.USAGE;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.LANGUAGES;
 
 @RestController
@@ -27,24 +43,25 @@ import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.LANGUAGES;
 @Validated
 public class LanguageController {
     private final LanguageService service;
+    private final SuggestionService suggestionService;
 
     @Autowired
-    public LanguageController(LanguageService service) {
+    public LanguageController(LanguageService service, SuggestionService suggestionService) {
         this.service = service;
+        this.suggestionService = suggestionService;
     }
 
     @PostMapping(value = BULK,
             produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
-    ResponseEntity<LanguagesResponseDto> createBulk(@Valid @RequestBody LanguagesDto languagesDto) {
-        List<Language> bulk = service.createBulk(languagesDto);
-        List<LanguageResponseDto> responseDtos = bulk.stream()
-                .map(LibraryMapper.INSTANCE::toLanguageResponseDto)
+    ResponseEntity<BulkItemsDto> createBulk(@Valid @RequestBody LanguagesDto languagesDto) {
+        List<BulkItemDto> responseDtos = service.createBulk(languagesDto).stream()
+                .map(LibraryMapper.INSTANCE::toBulkItemDto)
                 .toList();
-        return ResponseEntity.ok().body(LanguagesResponseDto.of(responseDtos));
+        return ResponseEntity.ok().body(BulkItemsDto.of(responseDtos));
     }
 
-    @PostMapping(produces = APPLICATION_JSON_VALUE,
+    @PostMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<LanguageResponseDto> create(@Valid @RequestBody LanguageDto languageDto) {
         Language language = service.create(languageDto);
@@ -52,28 +69,74 @@ public class LanguageController {
                 .buildAndExpand(language.getId()).toUri();
         LanguageResponseDto responseDto = LibraryMapper.INSTANCE.toLanguageResponseDto(language);
 
-        return ResponseEntity.created(location).body(responseDto);
+        return ResponseEntity.created(location).eTag(ETagUtil.of(language.getVersion())).body(responseDto);
     }
 
-    @GetMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<LanguageResponseDto> read(@PathVariable Long id) {
+    /**
+     * Scrolls through the languages in name order, optionally only those starting with a prefix.
+     *
+     * @param counts whether to send how many books use each language
+     */
+    @GetMapping(produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CursorPageDto<NameUsageDto>> list(
+            @RequestParam(name = "prefix", defaultValue = "") String prefix,
+            @RequestParam(name = "after", defaultValue = "") String after,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "counts", defaultValue = "false") boolean counts) {
+        int pageSize = Math.max(1, Math.min(size, CursorPageDto.MAX_SIZE));
+        String afterName = after.isBlank() ? null : CursorUtil.decodeString(after);
+        List<Language> languages = service.list(prefix, afterName, pageSize + 1);
+
+        List<NameUsageDto> content = languages.stream()
+                .limit(pageSize)
+                .map(language -> new NameUsageDto(language.getId(), language.getName(), counts ? language.getBookCount() : null))
+                .toList();
+        String nextCursor = languages.size() > pageSize ? CursorUtil.encode(languages.get(pageSize - 1).getNameNorm()) : null;
+        return ResponseEntity.ok(CursorPageDto.of(content, pageSize, nextCursor));
+    }
+
+    @GetMapping(value = SUGGEST, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<SuggestionsDto> suggest(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                  @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        List<SuggestionDto> suggestions = suggestionService.suggestLanguages(prefix, limit).stream()
+                .map(LibraryMapper.INSTANCE::toSuggestionDto)
+                .toList();
+
+        return ResponseEntity.ok(SuggestionsDto.of(suggestions));
+    }
+
+    @GetMapping(value = "/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<LanguageResponseDto> read(@PathVariable Long id,
+                                                    @RequestHeader(name = IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (nonNull(ifNoneMatch)) {
+            long version = service.readVersion(id);
+            if (ETagUtil.matches(ifNoneMatch, version, false)) {
+                return ResponseEntity.status(NOT_MODIFIED).eTag(ETagUtil.of(version)).build();
+            }
+        }
         Language language = service.read(id);
         LanguageResponseDto responseDto = LibraryMapper.INSTANCE.toLanguageResponseDto(language);
 
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(language.getVersion())).body(responseDto);
+    }
+
+    @GetMapping(value = "/{id}" + USAGE, produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<UsageDto> usage(@PathVariable Long id) {
+        return ResponseEntity.ok(new UsageDto(id, service.countBooks(id)));
     }
 
     @PutMapping(value = "/{id}",
-            produces = APPLICATION_JSON_VALUE,
+            produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE},
             consumes = APPLICATION_JSON_VALUE)
     public ResponseEntity<LanguageResponseDto> update(@PathVariable Long id,
-                                                      @Valid @RequestBody LanguageDto keywordDto) {
-        Language language = service.update(id, keywordDto);
+                                                      @Valid @RequestBody LanguageDto keywordDto,
+                                                      @RequestHeader(name = IF_MATCH, required = false) String ifMatch) {
+        Language language = service.update(id, keywordDto, ETagUtil.ifMatch(ifMatch));
         LanguageResponseDto responseDto = LibraryMapper.INSTANCE.toLanguageResponseDto(language);
-        return ResponseEntity.ok().body(responseDto);
+        return ResponseEntity.ok().eTag(ETagUtil.of(language.getVersion())).body(responseDto);
     }
 
-    @DeleteMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
+    @DeleteMapping(value = "/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_CBOR_VALUE})
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.delete(id);
 
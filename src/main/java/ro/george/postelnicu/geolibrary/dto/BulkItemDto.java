@@ -0,0 +1,43 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BulkItemDto {
+
+    private String name;
+    private Long id;
+    private boolean created;
+
+    @JsonCreator
+    public BulkItemDto(@JsonProperty("name") String name, @JsonProperty("id") Long id,
+                       @JsonProperty("created") boolean created) {
+        this.name = name;
+        this.id = id;
+        this.created = created;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+}
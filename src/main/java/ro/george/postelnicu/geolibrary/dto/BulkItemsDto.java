@@ -0,0 +1,12 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import java.util.List;
+
+public class BulkItemsDto extends ListResultDto<BulkItemDto> {
+    public static BulkItemsDto of(List<BulkItemDto> elements) {
+        BulkItemsDto result = new BulkItemsDto();
+        result.setElements(elements);
+        return result;
+    }
+
+}
@@ -0,0 +1,49 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset scroll; {@code nextCursor} is null on the last page.
+ */
+public class CursorPageDto<T> {
+    /**
+     * The largest page the listings of authors, keywords and languages return.
+     */
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+
+    public static <T> CursorPageDto<T> of(List<T> content, int size, String nextCursor) {
+        CursorPageDto<T> result = new CursorPageDto<>();
+        result.setContent(content);
+        result.setSize(size);
+        result.setNextCursor(nextCursor);
+        return result;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,48 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An author, keyword or language of a listing; the book count is only sent when it was asked for.
+ */
+public class NameUsageDto {
+
+    private Long id;
+    private String name;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long bookCount;
+
+    @JsonCreator
+    public NameUsageDto(@JsonProperty("id") Long id, @JsonProperty("name") String name,
+                        @JsonProperty("bookCount") Long bookCount) {
+        this.id = id;
+        this.name = name;
+        this.bookCount = bookCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(Long bookCount) {
+        this.bookCount = bookCount;
+    }
+}
@@ -0,0 +1,32 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SuggestionDto {
+
+    private String name;
+    private long bookCount;
+
+    @JsonCreator
+    public SuggestionDto(@JsonProperty("name") String name, @JsonProperty("bookCount") long bookCount) {
+        this.name = name;
+        this.bookCount = bookCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(long bookCount) {
+        this.bookCount = bookCount;
+    }
+}
@@ -0,0 +1,12 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import java.util.List;
+
+public class SuggestionsDto extends ListResultDto<SuggestionDto> {
+    public static SuggestionsDto of(List<SuggestionDto> elements) {
+        SuggestionsDto result = new SuggestionsDto();
+        result.setElements(elements);
+        return result;
+    }
+
+}
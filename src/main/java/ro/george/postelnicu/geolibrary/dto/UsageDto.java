@@ -0,0 +1,32 @@
+package ro.george.postelnicu.geolibrary.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class UsageDto {
+
+    private Long id;
+    private long bookCount;
+
+    @JsonCreator
+    public UsageDto(@JsonProperty("id") Long id, @JsonProperty("bookCount") long bookCount) {
+        this.id = id;
+        this.bookCount = bookCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public void setBookCount(long bookCount) {
+        this.bookCount = bookCount;
+    }
+}
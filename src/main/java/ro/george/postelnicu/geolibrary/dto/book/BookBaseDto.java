@@ -3,6 +3,7 @@ package ro.george.postelnicu.geolibrary.dto.book;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import ro.george.postelnicu.geolibrary.model.CoverType;
 import ro.george.postelnicu.geolibrary.model.StatusType;
 
@@ -22,7 +23,7 @@ public class BookBaseDto {
     @Max(value = 1000)
     private Integer pages;
     private String barcode;
-    @NotBlank
+    @NotNull
     private StatusType status;
 
     public String getName() {
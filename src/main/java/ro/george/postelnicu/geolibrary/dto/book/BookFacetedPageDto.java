@@ -0,0 +1,36 @@
+package ro.george.postelnicu.geolibrary.dto.book;
+
+import org.springframework.data.domain.Page;
+import ro.george.postelnicu.geolibrary.model.BookFacets;
+
+/**
+ * A page of search results together with the facet counts of the whole search.
+ */
+public class BookFacetedPageDto {
+
+    private Page<BookResponseDto> page;
+    private BookFacets facets;
+
+    public static BookFacetedPageDto of(Page<BookResponseDto> page, BookFacets facets) {
+        BookFacetedPageDto result = new BookFacetedPageDto();
+        result.setPage(page);
+        result.setFacets(facets);
+        return result;
+    }
+
+    public Page<BookResponseDto> getPage() {
+        return page;
+    }
+
+    public void setPage(Page<BookResponseDto> page) {
+        this.page = page;
+    }
+
+    public BookFacets getFacets() {
+        return facets;
+    }
+
+    public void setFacets(BookFacets facets) {
+        this.facets = facets;
+    }
+}
@@ -1,5 +1,6 @@
 package ro.george.postelnicu.geolibrary.dto.book;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotNull;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
@@ -11,6 +12,12 @@ public class BookResponseDto extends BookBaseDto {
     @NotNull
     private Long id;
 
+    /**
+     * Sent as the ETag of the response rather than in its body.
+     */
+    @JsonIgnore
+    private Long version;
+
     private Set<AuthorResponseDto> authors;
     private Set<KeywordResponseDto> keywords;
     private Set<LanguageResponseDto> languages;
@@ -23,6 +30,14 @@ public class BookResponseDto extends BookBaseDto {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Set<AuthorResponseDto> getAuthors() {
         return authors;
     }
@@ -0,0 +1,28 @@
+package ro.george.postelnicu.geolibrary.dto.book;
+
+import org.springframework.web.bind.annotation.BindParam;
+import ro.george.postelnicu.geolibrary.model.CoverType;
+import ro.george.postelnicu.geolibrary.model.MatchMode;
+
+import java.util.Set;
+
+/**
+ * Query parameters shared by all the book search endpoints.
+ */
+public record BookSearchRequestDto(String name,
+                                   @BindParam("full_title") String fullTitle,
+                                   String description,
+                                   String isbn,
+                                   String barcode,
+                                   Set<String> authors,
+                                   Set<String> keywords,
+                                   Set<String> languages,
+                                   String publisher,
+                                   @BindParam("cover_type") CoverType coverType,
+                                   @BindParam("min_year") Integer minYear,
+                                   @BindParam("max_year") Integer maxYear,
+                                   @BindParam("min_pages") Integer minPages,
+                                   @BindParam("max_pages") Integer maxPages,
+                                   @BindParam("q") String query,
+                                   @BindParam("relation_match") MatchMode relationMatch) {
+}
@@ -0,0 +1,9 @@
+package ro.george.postelnicu.geolibrary.exception;
+
+public class EntityVersionMismatchException extends RuntimeException {
+    public static final String ENTITY_VERSION_MISMATCH = "Entity [%s] with [%s] is at version [%s], not the expected one";
+
+    public EntityVersionMismatchException(String entityName, Long id, String current) {
+        super(String.format(ENTITY_VERSION_MISMATCH, entityName, id, current));
+    }
+}
@@ -0,0 +1,10 @@
+package ro.george.postelnicu.geolibrary.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public static final String INVALID_CURSOR = "Cursor [%s] is not valid";
+
+    public InvalidCursorException(String cursor) {
+        super(String.format(INVALID_CURSOR, cursor));
+    }
+}
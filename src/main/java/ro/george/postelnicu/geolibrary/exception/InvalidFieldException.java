@@ -0,0 +1,10 @@
+package ro.george.postelnicu.geolibrary.exception;
+
+public class InvalidFieldException extends RuntimeException {
+
+    public static final String INVALID_FIELD = "Field [%s] is not valid";
+
+    public InvalidFieldException(String field) {
+        super(String.format(INVALID_FIELD, field));
+    }
+}
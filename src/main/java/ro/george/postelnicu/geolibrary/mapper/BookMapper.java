@@ -1,12 +1,17 @@
 package ro.george.postelnicu.geolibrary.mapper;
 
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.factory.Mappers;
 import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookPatchDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookSearchRequestDto;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
 
 @Mapper(uses = BookRelationMapper.class)
 public interface BookMapper {
@@ -23,4 +28,13 @@ public interface BookMapper {
     @Mapping(target = "keywords", ignore = true)
     @Mapping(target = "languages", ignore = true)
     void updateBookFromDto(BookDto dto, @MappingTarget Book book);
+
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "authors", ignore = true)
+    @Mapping(target = "keywords", ignore = true)
+    @Mapping(target = "languages", ignore = true)
+    void patchBookFromDto(BookPatchDto dto, @MappingTarget Book book);
+
+    BookSearchCriteria toBookSearchCriteria(BookSearchRequestDto dto);
 }
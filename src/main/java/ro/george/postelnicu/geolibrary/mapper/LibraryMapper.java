@@ -5,6 +5,8 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.factory.Mappers;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
@@ -12,8 +14,10 @@ import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
 import ro.george.postelnicu.geolibrary.model.Author;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Keyword;
 import ro.george.postelnicu.geolibrary.model.Language;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
 import ro.george.postelnicu.geolibrary.util.StringUtil;
 
 @Mapper
@@ -57,4 +61,8 @@ public interface LibraryMapper {
 
     LanguageResponseDto toLanguageResponseDto(Language entity);
 
+    SuggestionDto toSuggestionDto(Suggestion suggestion);
+
+    BulkItemDto toBulkItemDto(BulkItem item);
+
 }
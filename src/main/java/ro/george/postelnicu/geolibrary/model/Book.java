@@ -1,19 +1,31 @@
 package ro.george.postelnicu.geolibrary.model;
 
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.DynamicUpdate;
+import ro.george.postelnicu.geolibrary.util.StringUtil;
 
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 
 import static jakarta.persistence.GenerationType.IDENTITY;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
+// A patch of one field should not rewrite the description and every other column
 @Entity
+@DynamicUpdate
 @Table(name = "book")
+@Cache(usage = READ_WRITE, region = "book")
 public class Book {
     @Id
     @GeneratedValue(strategy = IDENTITY)
     private Long id;
+    // Assigned on construction and never changed, it identifies the book in equals and hashCode before it has an id
+    @Column(updatable = false)
+    private String uuid = UUID.randomUUID().toString();
     private String name;
     private String fullTitle;
     private String description;
@@ -21,6 +33,7 @@ public class Book {
             CascadeType.PERSIST,
             CascadeType.MERGE
     })
+    @Cache(usage = READ_WRITE, region = "book-authors")
     @JoinTable(name = "book_author",
             joinColumns = @JoinColumn(name = "book_id"),
             inverseJoinColumns = @JoinColumn(name = "author_id")
@@ -31,6 +44,7 @@ public class Book {
             CascadeType.PERSIST,
             CascadeType.MERGE
     })
+    @Cache(usage = READ_WRITE, region = "book-keywords")
     @JoinTable(name = "book_keyword",
             joinColumns = @JoinColumn(name = "book_id"),
             inverseJoinColumns = @JoinColumn(name = "keyword_id")
@@ -41,6 +55,7 @@ public class Book {
             CascadeType.PERSIST,
             CascadeType.MERGE
     })
+    @Cache(usage = READ_WRITE, region = "book-languages")
     @JoinTable(name = "book_language",
             joinColumns = @JoinColumn(name = "book_id"),
             inverseJoinColumns = @JoinColumn(name = "language_id")
@@ -55,41 +70,80 @@ public class Book {
     private String barcode;
     @Enumerated(EnumType.STRING)
     private StatusType status;
+    @Version
+    private Long version;
+
+    // Lower case copies of the searchable columns, so case-insensitive lookups can use an index
+    private String nameNorm;
+    private String fullTitleNorm;
+    private String publisherNorm;
+    private String isbnNorm;
+    private String barcodeNorm;
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        nameNorm = StringUtil.normalize(name);
+        fullTitleNorm = StringUtil.normalize(fullTitle);
+        publisherNorm = StringUtil.normalize(publisher);
+        isbnNorm = StringUtil.normalize(isbn);
+        barcodeNorm = StringUtil.normalize(barcode);
+    }
 
     public void addAuthor(Author author) {
         authors.add(author);
-        author.getBooks().add(this);
+        addIfLoaded(author.getBooks());
     }
 
     public void removeAuthor(Author author) {
         authors.remove(author);
-        author.getBooks().remove(this);
+        removeIfLoaded(author.getBooks());
     }
 
     public void addKeyword(Keyword keyword) {
         keywords.add(keyword);
-        keyword.getBooks().add(this);
+        addIfLoaded(keyword.getBooks());
     }
 
     public void removeKeyword(Keyword keyword) {
         keywords.remove(keyword);
-        keyword.getBooks().remove(this);
+        removeIfLoaded(keyword.getBooks());
     }
 
     public void addLanguage(Language language) {
         languages.add(language);
-        language.getBooks().add(this);
+        addIfLoaded(language.getBooks());
     }
 
     public void removeLanguage(Language language) {
         languages.remove(language);
-        language.getBooks().remove(this);
+        removeIfLoaded(language.getBooks());
+    }
+
+    /**
+     * The join rows are written through the owning collections of the book alone, so an inverse collection is only
+     * kept in step when it is already loaded; linking never reads every book of a popular author, keyword or language.
+     */
+    private void addIfLoaded(Set<Book> books) {
+        if (Hibernate.isInitialized(books)) {
+            books.add(this);
+        }
+    }
+
+    private void removeIfLoaded(Set<Book> books) {
+        if (Hibernate.isInitialized(books)) {
+            books.remove(this);
+        }
     }
 
     public Long getId() {
         return id;
     }
 
+    public String getUuid() {
+        return uuid;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -198,16 +252,20 @@ public class Book {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Book book = (Book) o;
-        return Objects.equals(id, book.id);
+        return Objects.equals(uuid, book.getUuid());
     }
 
     @Override
     public int hashCode() {
-        return getClass().hashCode();
+        return uuid.hashCode();
     }
 }
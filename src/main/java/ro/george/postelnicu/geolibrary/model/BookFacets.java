@@ -0,0 +1,14 @@
+package ro.george.postelnicu.geolibrary.model;
+
+import java.util.Map;
+
+/**
+ * Number of matching books per value of each filter; the maps keep the order in which the values should be shown.
+ */
+public record BookFacets(Map<CoverType, Long> coverTypes,
+                         Map<StatusType, Long> statuses,
+                         Map<String, Long> languages,
+                         Map<String, Long> keywords,
+                         Map<String, Long> publishers,
+                         Map<Integer, Long> publishYears) {
+}
@@ -0,0 +1,104 @@
+package ro.george.postelnicu.geolibrary.model;
+
+import ro.george.postelnicu.geolibrary.exception.InvalidFieldException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * The properties of a book response, with the column or the relation each of them is read from.
+ */
+public enum BookField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    FULL_TITLE("fullTitle", "full_title"),
+    DESCRIPTION("description", "description"),
+    PUBLISHER("publisher", "publisher"),
+    ISBN("isbn", "isbn"),
+    COVER("cover", "cover"),
+    PUBLISH_YEAR("publishYear", "publish_year"),
+    PAGES("pages", "pages"),
+    BARCODE("barcode", "barcode"),
+    STATUS("status", "status"),
+    AUTHORS(BookRelation.AUTHORS),
+    KEYWORDS(BookRelation.KEYWORDS),
+    LANGUAGES(BookRelation.LANGUAGES);
+
+    /**
+     * The name of the predefined view for list pages.
+     */
+    public static final String SUMMARY_VIEW = "summary";
+    public static final Set<BookField> ALL = Collections.unmodifiableSet(EnumSet.allOf(BookField.class));
+    public static final Set<BookField> SUMMARY = Collections.unmodifiableSet(
+            EnumSet.of(ID, NAME, ISBN, PUBLISHER, PUBLISH_YEAR, STATUS));
+
+    private final String property;
+    private final String column;
+    private final BookRelation relation;
+
+    BookField(String property, String column) {
+        this.property = property;
+        this.column = column;
+        this.relation = null;
+    }
+
+    BookField(BookRelation relation) {
+        this.property = relation.getPath();
+        this.column = null;
+        this.relation = relation;
+    }
+
+    /**
+     * Parses a comma separated list of properties, which may include the summary view; the id is always included.
+     *
+     * @return every field when none is given
+     */
+    public static Set<BookField> parse(String fields) {
+        if (isNull(fields) || fields.isBlank()) {
+            return ALL;
+        }
+        Set<BookField> parsed = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String property = name.trim();
+            if (property.equals(SUMMARY_VIEW)) {
+                parsed.addAll(SUMMARY);
+            } else {
+                parsed.add(Arrays.stream(values())
+                        .filter(field -> field.property.equals(property))
+                        .findFirst()
+                        .orElseThrow(() -> new InvalidFieldException(property)));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * The name of the property in the response.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * The column of the book table, null for a relation.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * The relation the names are read from, null for a column.
+     */
+    public BookRelation getRelation() {
+        return relation;
+    }
+
+    public boolean isRelation() {
+        return nonNull(relation);
+    }
+}
@@ -0,0 +1,23 @@
+package ro.george.postelnicu.geolibrary.model;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Outcome of one imported record: the id of the created book, or the reason it was rejected.
+ *
+ * @param line the line the record starts on
+ */
+public record BookImportResult(long line, String name, Long id, String error) {
+
+    public static BookImportResult created(long line, String name, Long id) {
+        return new BookImportResult(line, name, id, null);
+    }
+
+    public static BookImportResult failed(long line, String name, String error) {
+        return new BookImportResult(line, name, null, error);
+    }
+
+    public boolean hasError() {
+        return nonNull(error);
+    }
+}
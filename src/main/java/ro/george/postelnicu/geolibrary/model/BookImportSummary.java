@@ -0,0 +1,4 @@
+package ro.george.postelnicu.geolibrary.model;
+
+public record BookImportSummary(long created, long failed) {
+}
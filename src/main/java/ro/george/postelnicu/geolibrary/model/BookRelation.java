@@ -0,0 +1,50 @@
+package ro.george.postelnicu.geolibrary.model;
+
+import java.util.Arrays;
+
+/**
+ * The collections of a book, with the path segment, join table and related table behind each of them.
+ */
+public enum BookRelation {
+    AUTHORS("authors", "book_author", "author_id", EntityName.AUTHOR),
+    KEYWORDS("keywords", "book_keyword", "keyword_id", EntityName.KEYWORD),
+    LANGUAGES("languages", "book_language", "language_id", EntityName.LANGUAGE);
+
+    private final String path;
+    private final String joinTable;
+    private final String column;
+    private final String table;
+
+    BookRelation(String path, String joinTable, String column, String table) {
+        this.path = path;
+        this.joinTable = joinTable;
+        this.column = column;
+        this.table = table;
+    }
+
+    public static BookRelation fromPath(String path) {
+        return Arrays.stream(values())
+                .filter(relation -> relation.path.equals(path))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(path));
+    }
+
+    /**
+     * The path segment, which is also the name of the collection on {@link Book}.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getJoinTable() {
+        return joinTable;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getTable() {
+        return table;
+    }
+}
@@ -1,10 +1,63 @@
 package ro.george.postelnicu.geolibrary.model;
 
-
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.*;
 
 public record BookSearchCriteria(String name, String fullTitle, String description, String isbn, String barcode,
                                  Set<String> authors, Set<String> keywords, Set<String> languages,
                                  String publisher, CoverType coverType,
-                                 Integer minYear, Integer maxYear, Integer minPages, Integer maxPages) {
+                                 Integer minYear, Integer maxYear, Integer minPages, Integer maxPages,
+                                 String query, MatchMode relationMatch) {
+
+    public BookSearchCriteria {
+        relationMatch = isNull(relationMatch) ? MatchMode.ALL : relationMatch;
+    }
+
+    /**
+     * @return true when the text query is the only filter of this search
+     */
+    public boolean isQueryOnly() {
+        return isPresent(query) &&
+                Stream.of(name, fullTitle, description, isbn, barcode, publisher).noneMatch(BookSearchCriteria::isPresent) &&
+                Stream.of(authors, keywords, languages).allMatch(names -> isNull(names) || names.isEmpty()) &&
+                Stream.of(coverType, minYear, maxYear, minPages, maxPages).allMatch(Objects::isNull);
+    }
+
+    /**
+     * @return criteria finding the same books, written the same way whatever the case, the order of the names,
+     * the order of the query words or ignored wildcards of the original
+     */
+    public BookSearchCriteria canonical() {
+        return new BookSearchCriteria(canonical(name), canonical(fullTitle), canonical(description),
+                canonical(isbn), canonical(barcode),
+                canonical(authors), canonical(keywords), canonical(languages),
+                canonical(publisher), coverType,
+                minYear, maxYear, minPages, maxPages,
+                canonicalQuery(query), relationMatch);
+    }
+
+    private static String canonicalQuery(String query) {
+        List<String> tokens = tokenize(query);
+        return tokens.isEmpty() ? null : tokens.stream().sorted().collect(Collectors.joining(SPACE));
+    }
+
+    private static String canonical(String value) {
+        return !isPresent(value) || isWrongWildcard(value) ? null : normalize(value);
+    }
+
+    private static Set<String> canonical(Set<String> names) {
+        return isNull(names) || names.isEmpty() ? null : new TreeSet<>(normalize(names));
+    }
+
+    private static boolean isPresent(String value) {
+        return nonNull(value) && !value.isBlank();
+    }
 }
@@ -0,0 +1,7 @@
+package ro.george.postelnicu.geolibrary.model;
+
+/**
+ * One name of a bulk request, with the id it resolved to and whether the request created it.
+ */
+public record BulkItem(String name, Long id, boolean created) {
+}
@@ -0,0 +1,8 @@
+package ro.george.postelnicu.geolibrary.model;
+
+/**
+ * How much a search pays for its total: a full COUNT, a count capped at a limit, or no count at all.
+ */
+public enum CountMode {
+    EXACT, ESTIMATE, NONE
+}
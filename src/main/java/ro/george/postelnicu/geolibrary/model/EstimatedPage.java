@@ -0,0 +1,28 @@
+package ro.george.postelnicu.geolibrary.model;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page whose total is only a lower bound when {@link #isExact()} is false.
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+    private final boolean exact;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean exact) {
+        super(content, pageable, total);
+        this.exact = exact;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public <U> EstimatedPage<U> map(Function<? super T, ? extends U> converter) {
+        return new EstimatedPage<>(getConvertedContent(converter), getPageable(), getTotalElements(), exact);
+    }
+}
@@ -0,0 +1,8 @@
+package ro.george.postelnicu.geolibrary.model;
+
+/**
+ * Formats of the book import and export: one JSON book per line, or CSV with a header row.
+ */
+public enum ImportFormat {
+    NDJSON, CSV
+}
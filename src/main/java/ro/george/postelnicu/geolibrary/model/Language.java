@@ -1,15 +1,20 @@
 package ro.george.postelnicu.geolibrary.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.OptimisticLock;
+import ro.george.postelnicu.geolibrary.util.StringUtil;
 
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import static jakarta.persistence.GenerationType.IDENTITY;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 @Entity
 @Table(name = "language")
+@Cache(usage = READ_WRITE, region = "language")
 public class Language {
     @Id
     @GeneratedValue(strategy = IDENTITY)
@@ -18,6 +23,22 @@ public class Language {
     @Column(unique = true)
     private String name;
 
+    /**
+     * Lower case copy of the name, so case-insensitive lookups can use an index.
+     */
+    private String nameNorm;
+
+    /**
+     * Number of books linked to this language, kept up to date by the book writes rather than through this entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private long bookCount;
+
+    @Version
+    private Long version;
+
+    // Linking books must not bump the version, the books are not part of the representation
+    @OptimisticLock(excluded = true)
     @ManyToMany(mappedBy = "languages")
     private Set<Book> books = new HashSet<>();
 
@@ -37,6 +58,18 @@ public class Language {
         this.name = name;
     }
 
+    public String getNameNorm() {
+        return nameNorm;
+    }
+
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public Set<Book> getBooks() {
         return books;
     }
@@ -45,6 +78,12 @@ public class Language {
         this.books = books;
     }
 
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        nameNorm = StringUtil.normalize(name);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
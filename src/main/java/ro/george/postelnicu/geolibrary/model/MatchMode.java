@@ -0,0 +1,8 @@
+package ro.george.postelnicu.geolibrary.model;
+
+/**
+ * Whether a book must be linked to any or to all of the names given for a relation filter.
+ */
+public enum MatchMode {
+    ANY, ALL
+}
@@ -0,0 +1,7 @@
+package ro.george.postelnicu.geolibrary.model;
+
+/**
+ * A name offered while typing, with the number of books using it.
+ */
+public record Suggestion(String name, long bookCount) {
+}
@@ -0,0 +1,16 @@
+package ro.george.postelnicu.geolibrary.model;
+
+/**
+ * The names suggested while typing, each loaded and kept up to date on its own.
+ */
+public enum SuggestionSource {
+    AUTHORS, KEYWORDS, LANGUAGES, PUBLISHERS;
+
+    public static SuggestionSource of(BookRelation relation) {
+        return switch (relation) {
+            case AUTHORS -> AUTHORS;
+            case KEYWORDS -> KEYWORDS;
+            case LANGUAGES -> LANGUAGES;
+        };
+    }
+}
@@ -2,17 +2,46 @@ package ro.george.postelnicu.geolibrary.repository;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ro.george.postelnicu.geolibrary.model.Author;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
-    boolean existsByNameIgnoreCase(@NotBlank String name);
+    boolean existsByNameNorm(@NotBlank String nameNorm);
 
-    boolean existsByNameIgnoreCaseAndIdIsNot(@NotBlank String name, @NotNull long id);
+    boolean existsByNameNormAndIdIsNot(@NotBlank String nameNorm, @NotNull long id);
 
-    Optional<Author> findByNameIgnoreCase(@NotBlank String name);
+    Optional<Author> findByNameNorm(@NotBlank String nameNorm);
+
+    List<Author> findByNameNormIn(@NotNull Collection<String> nameNorms);
+
+    @Query("select new ro.george.postelnicu.geolibrary.model.Suggestion(a.name, a.bookCount) from Author a")
+    List<Suggestion> findNamesWithBookCount();
+
+    @Query("select a.bookCount from Author a where a.id = :id")
+    Optional<Long> findBookCount(@NotNull Long id);
+
+    @Query("select b.id from Author a join a.books b where a.id = :id")
+    Set<Long> findBookIds(@NotNull Long id);
+
+    @Query("select a.version from Author a where a.id = :id")
+    Optional<Long> findVersion(@NotNull Long id);
+
+    /**
+     * The next page of a keyset scroll on the name index, {@code after} being the last normalized name seen.
+     */
+    List<Author> findByNameNormGreaterThanOrderByNameNorm(@NotNull String after, @NotNull Limit limit);
+
+    List<Author> findByNameNormStartingWithAndNameNormGreaterThanOrderByNameNorm(@NotBlank String prefix,
+                                                                              @NotNull String after,
+                                                                              @NotNull Limit limit);
 }
@@ -0,0 +1,170 @@
+package ro.george.postelnicu.geolibrary.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.*;
+
+import static java.util.Objects.isNull;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
+
+/**
+ * JDBC writes for the bulk import and the single relation edits, which bypass the persistence context entirely.
+ * Entity callbacks do not run here, so the *_norm columns are filled the same way {@link Book} fills them,
+ * and the cached state of the books changed is evicted here.
+ */
+@Repository
+public class BookJdbcRepository {
+    private static final String INSERT_BOOK = """
+            INSERT INTO book (name, full_title, description, publisher, isbn, cover, publish_year, pages, barcode, status,
+                              name_norm, full_title_norm, publisher_norm, isbn_norm, barcode_norm, uuid)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_RELATION = "INSERT INTO %s (book_id, %s) VALUES (?, ?)";
+    private static final String INSERT_RELATION_IF_ABSENT = """
+            INSERT INTO %1$s (book_id, %2$s)
+            SELECT ?, ? FROM DUAL
+            WHERE NOT EXISTS (SELECT 1 FROM %1$s WHERE book_id = ? AND %2$s = ?)""";
+    private static final String DELETE_RELATION = "DELETE FROM %s WHERE book_id = ? AND %s = ?";
+    private static final String INCREMENT_VERSION = "UPDATE book SET version = version + 1 WHERE id = ? AND version = ?";
+    private static final String INCREMENT_VERSIONS = "UPDATE book SET version = version + 1 WHERE id IN (:ids)";
+    private static final String SELECT_EXISTING = "SELECT %s FROM book WHERE %s IN (:values)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+
+    @Autowired
+    public BookJdbcRepository(JdbcTemplate jdbcTemplate, SecondLevelCache secondLevelCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    /**
+     * @param column one of the book's *_norm columns
+     * @return the values of the column already taken
+     */
+    public Set<String> findExisting(String column, Collection<String> values) {
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList(String.format(SELECT_EXISTING, column, column),
+                Map.of("values", values), String.class));
+    }
+
+    /**
+     * Inserts the books in one batch, without their relations.
+     *
+     * @return the generated ids, in the order of the books
+     */
+    public List<Long> insertAll(List<Book> books) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_BOOK, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Book book = books.get(i);
+                        ps.setString(1, book.getName());
+                        ps.setString(2, book.getFullTitle());
+                        ps.setString(3, book.getDescription());
+                        ps.setString(4, book.getPublisher());
+                        ps.setString(5, book.getIsbn());
+                        ps.setString(6, isNull(book.getCover()) ? null : book.getCover().name());
+                        ps.setObject(7, book.getPublishYear(), Types.INTEGER);
+                        ps.setObject(8, book.getPages(), Types.INTEGER);
+                        ps.setString(9, book.getBarcode());
+                        ps.setString(10, isNull(book.getStatus()) ? null : book.getStatus().name());
+                        ps.setString(11, normalize(book.getName()));
+                        ps.setString(12, normalize(book.getFullTitle()));
+                        ps.setString(13, normalize(book.getPublisher()));
+                        ps.setString(14, normalize(book.getIsbn()));
+                        ps.setString(15, normalize(book.getBarcode()));
+                        ps.setString(16, book.getUuid());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return books.size();
+                    }
+                }, keyHolder);
+
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    /**
+     * Links books which were just inserted, so none of them can be cached yet.
+     *
+     * @param links pairs of book id and related entity id
+     */
+    public void insertRelations(BookRelation relation, List<long[]> links) {
+        if (links.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(String.format(INSERT_RELATION, relation.getJoinTable(), relation.getColumn()),
+                links, links.size(),
+                (ps, link) -> {
+                    ps.setLong(1, link[0]);
+                    ps.setLong(2, link[1]);
+                });
+    }
+
+    /**
+     * Links the book to the related entity, unless it already is.
+     *
+     * @return whether a join row was inserted
+     */
+    public boolean insertRelation(BookRelation relation, long bookId, long relatedId) {
+        boolean inserted = jdbcTemplate.update(
+                String.format(INSERT_RELATION_IF_ABSENT, relation.getJoinTable(), relation.getColumn()),
+                bookId, relatedId, bookId, relatedId) > 0;
+        if (inserted) {
+            secondLevelCache.evictCollection(Book.class, relation.getPath(), bookId);
+        }
+        return inserted;
+    }
+
+    /**
+     * @return whether a join row was deleted
+     */
+    public boolean deleteRelation(BookRelation relation, long bookId, long relatedId) {
+        boolean deleted = jdbcTemplate.update(
+                String.format(DELETE_RELATION, relation.getJoinTable(), relation.getColumn()), bookId, relatedId) > 0;
+        if (deleted) {
+            secondLevelCache.evictCollection(Book.class, relation.getPath(), bookId);
+        }
+        return deleted;
+    }
+
+    /**
+     * @return false when the book is no longer at the given version
+     */
+    public boolean incrementVersion(long bookId, long version) {
+        boolean incremented = jdbcTemplate.update(INCREMENT_VERSION, bookId, version) > 0;
+        secondLevelCache.evictEntities(Book.class, Set.of(bookId));
+        return incremented;
+    }
+
+    /**
+     * For the books whose representation changes through one of their authors, keywords or languages.
+     */
+    public void incrementVersions(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(INCREMENT_VERSIONS, Map.of("ids", bookIds));
+        secondLevelCache.evictEntities(Book.class, bookIds);
+    }
+}
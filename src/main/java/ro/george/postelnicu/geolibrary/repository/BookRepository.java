@@ -1,16 +1,29 @@
 package ro.george.postelnicu.geolibrary.repository;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
-    boolean existsByNameIgnoreCase(@NotBlank String name);
+    boolean existsByNameNorm(@NotBlank String nameNorm);
+
+    boolean existsByIsbnNorm(@NotBlank String isbnNorm);
+
+    boolean existsByBarcodeNorm(@NotBlank String barcodeNorm);
 
-    boolean existsByIsbnIgnoreCase(@NotBlank String isbn);
+    @Query("select new ro.george.postelnicu.geolibrary.model.Suggestion(b.publisher, count(b)) " +
+            "from Book b where b.publisher is not null group by b.publisher")
+    List<Suggestion> findPublishersWithBookCount();
 
-    boolean existsByBarcodeIgnoreCase(@NotBlank String barcode);
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersion(@NotNull Long id);
 }
@@ -1,35 +1,215 @@
 package ro.george.postelnicu.geolibrary.repository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaSubQuery;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import ro.george.postelnicu.geolibrary.model.Book;
 import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
 
+import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import static java.util.Objects.nonNull;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 import static org.springframework.data.jpa.domain.Specification.allOf;
 import static ro.george.postelnicu.geolibrary.specification.CollectionFieldSpecification.buildCollectionsSpecification;
+import static ro.george.postelnicu.geolibrary.specification.FullTextFunctionContributor.MATCH_AGAINST;
+import static ro.george.postelnicu.geolibrary.specification.FullTextSpecification.buildFullTextSpecification;
 import static ro.george.postelnicu.geolibrary.specification.NumericalFieldSpecification.buildNumericalSpecification;
+import static ro.george.postelnicu.geolibrary.specification.StringLikeFieldSpecification.buildNormalizedSpecification;
 import static ro.george.postelnicu.geolibrary.specification.StringLikeFieldSpecification.buildSpecification;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
 
 @Repository
 public class BookSpecificationRepository {
+    private static final String ID = "id";
 
-    private final BookRepository repository;
+    private final EntityManager entityManager;
+    private final SessionFactoryImplementor sessionFactory;
+    private final boolean nativeFullText;
 
     @Autowired
-    public BookSpecificationRepository(BookRepository repository) {
-        this.repository = repository;
+    public BookSpecificationRepository(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.nativeFullText = nonNull(sessionFactory.getQueryEngine().getSqmFunctionRegistry()
+                .findFunctionDescriptor(MATCH_AGAINST));
     }
 
-    public Page<Book> search(@NotNull @Valid BookSearchCriteria searchCriteria, @NotNull Pageable pageRequest) {
+    /**
+     * Selects only the ids of the page; the books themselves are loaded afterwards, together with their relations.
+     */
+    public Page<Long> searchIds(@NotNull @Valid BookSearchCriteria searchCriteria, @NotNull Pageable pageRequest) {
+        TypedQuery<Long> query = selectIds(searchCriteria, null, pageRequest.getSort());
+        if (pageRequest.isPaged()) {
+            query.setFirstResult((int) pageRequest.getOffset()).setMaxResults(pageRequest.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageRequest, () -> count(searchCriteria));
+    }
+
+    /**
+     * Reads one row past the page instead of counting, which is all that is needed to tell if there is a next page.
+     */
+    public Slice<Long> searchSliceIds(@NotNull @Valid BookSearchCriteria searchCriteria,
+                                      @NotNull Pageable pageRequest) {
+        TypedQuery<Long> query = selectIds(searchCriteria, null, pageRequest.getSort());
+        if (pageRequest.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageRequest, false);
+        }
+        List<Long> ids = query
+                .setFirstResult((int) pageRequest.getOffset())
+                .setMaxResults(pageRequest.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = ids.size() > pageRequest.getPageSize();
+
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageRequest.getPageSize()) : ids, pageRequest, hasNext);
+    }
+
+    /**
+     * Counts the matching books, but stops at {@code limit} so the cost of the count stays bounded:
+     * the database counts the rows of a derived table limited to {@code limit} ids, and only the count comes back.
+     */
+    public long countUpTo(@NotNull @Valid BookSearchCriteria searchCriteria, int limit) {
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+        JpaSubQuery<Long> ids = query.subquery(Long.class);
+        Root<Book> root = ids.from(Book.class);
+        // a derived table needs named columns
+        Path<Long> id = root.get(ID);
+        id.alias(ID);
+        ids.select(id)
+                .where(toSpecification(searchCriteria).toPredicate(root, query, cb))
+                .fetch(limit);
+        // the order of the rows cannot change how many there are, so the relevance order is dropped
+        query.select(cb.count(query.from(ids).get(ID)))
+                .orderBy(List.of());
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Seeks past {@code afterId} on the primary key, so every page costs the same regardless of its depth.
+     */
+    public Window<Long> scrollIds(@NotNull @Valid BookSearchCriteria searchCriteria, Long afterId, int size) {
+        List<Long> ids = selectIds(searchCriteria, afterId, Sort.by(ID))
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = ids.size() > size;
+        List<Long> content = hasNext ? ids.subList(0, size) : ids;
+
+        return Window.from(content, index -> ScrollPosition.forward(Map.of(ID, content.get(index))), hasNext);
+    }
+
+    /**
+     * Reads the matching ids in id order from a forward-only cursor, {@code fetchSize} rows at a time, on the given
+     * connection rather than the one of the current transaction. The stream holds the cursor open and must be closed
+     * before the connection is.
+     */
+    public Stream<Long> streamIds(@NotNull @Valid BookSearchCriteria searchCriteria, int fetchSize,
+                                  @NotNull Connection connection) {
+        Session session = sessionFactory.withOptions().connection(connection).openSession();
+        try {
+            return selectIds(session, searchCriteria, null, Sort.by(ID))
+                    .setHint(HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HINT_READ_ONLY, true)
+                    .getResultStream()
+                    .onClose(session::close);
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Counts the matching books per value of {@code facet} in a single GROUP BY query, skipping null values.
+     *
+     * @param byCount orders the values by descending count when true, by the value itself otherwise
+     * @param limit   the maximum number of values returned
+     */
+    public <K> Map<K, Long> countBy(@NotNull @Valid BookSearchCriteria searchCriteria,
+                                    Function<Root<Book>, Expression<K>> facet, boolean byCount, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> root = query.from(Book.class);
+        Predicate predicate = toSpecification(searchCriteria).toPredicate(root, query, cb);
+        Expression<K> key = facet.apply(root);
+        Expression<Long> count = cb.count(root);
+        query.multiselect(key, count)
+                .where(predicate, cb.isNotNull(key))
+                .groupBy(key)
+                .orderBy(byCount ? List.of(cb.desc(count), cb.asc(key)) : List.of(cb.asc(key)));
+
+        Map<K, Long> counts = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            counts.put(tuple.get(key), tuple.get(count));
+        }
+        return counts;
+    }
+
+    private TypedQuery<Long> selectIds(BookSearchCriteria searchCriteria, Long afterId, Sort sort) {
+        return selectIds(entityManager, searchCriteria, afterId, sort);
+    }
+
+    private TypedQuery<Long> selectIds(EntityManager entityManager, BookSearchCriteria searchCriteria, Long afterId,
+                                       Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        Predicate predicate = toSpecification(searchCriteria).toPredicate(root, query, cb);
+        if (nonNull(afterId)) {
+            predicate = cb.and(predicate, cb.greaterThan(root.get(ID), afterId));
+        }
+        query.select(root.get(ID)).where(predicate);
+
+        // an explicit sort replaces the full-text relevance order, and the id keeps equal rows in a stable order
+        if (sort.isSorted()) {
+            Sort stableSort = sort.getOrderFor(ID) == null ? sort.and(Sort.by(ID)) : sort;
+            query.orderBy(QueryUtils.toOrders(stableSort, root, cb));
+        } else {
+            List<Order> orders = new ArrayList<>(query.getOrderList());
+            orders.add(cb.asc(root.get(ID)));
+            query.orderBy(orders);
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(BookSearchCriteria searchCriteria) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+        query.select(cb.count(root))
+                .where(toSpecification(searchCriteria).toPredicate(root, query, cb))
+                .orderBy(List.of());
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Specification<Book> toSpecification(BookSearchCriteria searchCriteria) {
         List<Specification<Book>> specifications = new ArrayList<>();
+        specifications.add(buildFullText(searchCriteria));
         specifications.add(buildNameFullTitleAndDescription(searchCriteria));
         specifications.add(buildIsbnAndBarcode(searchCriteria));
         specifications.add(buildPublisherAndCover(searchCriteria));
@@ -39,26 +219,31 @@ public class BookSpecificationRepository {
         specifications.add(buildKeywords(searchCriteria));
         specifications.add(buildLanguages(searchCriteria));
 
-        return repository.findAll(allOf(specifications), pageRequest);
+        return allOf(specifications);
+    }
+
+    private Specification<Book> buildFullText(BookSearchCriteria searchCriteria) {
+        return buildFullTextSpecification(searchCriteria.query(), nativeFullText,
+                "name", "fullTitle", "description");
     }
 
     private static Specification<Book> buildNameFullTitleAndDescription(BookSearchCriteria searchCriteria) {
-        Specification<Book> name = buildSpecification(searchCriteria.name(), root -> root.get("name"));
-        Specification<Book> fullTitle = buildSpecification(searchCriteria.fullTitle(), root -> root.get("fullTitle"));
+        Specification<Book> name = buildNormalizedSpecification(searchCriteria.name(), root -> root.get("nameNorm"));
+        Specification<Book> fullTitle = buildNormalizedSpecification(searchCriteria.fullTitle(), root -> root.get("fullTitleNorm"));
         Specification<Book> description = buildSpecification(searchCriteria.description(), root -> root.get("description"));
 
         return allOf(name, fullTitle, description);
     }
 
     private Specification<Book> buildIsbnAndBarcode(BookSearchCriteria searchCriteria) {
-        Specification<Book> isbn = buildSpecification(searchCriteria.isbn(), root -> root.get("isbn"));
-        Specification<Book> fullTitle = buildSpecification(searchCriteria.barcode(), root -> root.get("barcode"));
+        Specification<Book> isbn = buildNormalizedSpecification(searchCriteria.isbn(), root -> root.get("isbnNorm"));
+        Specification<Book> fullTitle = buildNormalizedSpecification(searchCriteria.barcode(), root -> root.get("barcodeNorm"));
 
         return allOf(isbn, fullTitle);
     }
 
     private static Specification<Book> buildPublisherAndCover(BookSearchCriteria searchCriteria) {
-        Specification<Book> publisherSpec = buildSpecification(searchCriteria.publisher(), root -> root.get("publisher"));
+        Specification<Book> publisherSpec = buildNormalizedSpecification(searchCriteria.publisher(), root -> root.get("publisherNorm"));
         Specification<Book> coverTypeSpec = buildSpecification(searchCriteria.coverType(), root -> root.get("cover"));
 
         return allOf(publisherSpec, coverTypeSpec);
@@ -75,15 +260,18 @@ public class BookSpecificationRepository {
     }
 
     private static Specification<Book> buildAuthors(BookSearchCriteria searchCriteria) {
-        return buildCollectionsSpecification(searchCriteria.authors(), root -> root.join("authors").get("name"));
+        return buildCollectionsSpecification(normalize(searchCriteria.authors()), searchCriteria.relationMatch(),
+                root -> root.join("authors").get("nameNorm"));
     }
 
     private static Specification<Book> buildKeywords(BookSearchCriteria searchCriteria) {
-        return buildCollectionsSpecification(searchCriteria.keywords(), root -> root.join("keywords").get("name"));
+        return buildCollectionsSpecification(normalize(searchCriteria.keywords()), searchCriteria.relationMatch(),
+                root -> root.join("keywords").get("nameNorm"));
     }
 
     private static Specification<Book> buildLanguages(BookSearchCriteria searchCriteria) {
-        return buildCollectionsSpecification(searchCriteria.languages(), root -> root.join("languages").get("name"));
+        return buildCollectionsSpecification(normalize(searchCriteria.languages()), searchCriteria.relationMatch(),
+                root -> root.join("languages").get("nameNorm"));
     }
 
 }
@@ -0,0 +1,145 @@
+package ro.george.postelnicu.geolibrary.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
+import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
+import ro.george.postelnicu.geolibrary.model.BookField;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
+import ro.george.postelnicu.geolibrary.model.CoverType;
+import ro.george.postelnicu.geolibrary.model.StatusType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Read model of the books, projected by SQL straight into the response DTOs without going through the persistence
+ * context. A batch of books costs two queries: one for the columns and one for the names of all their relations.
+ * Only the requested {@link BookField}s are read; the relations query is skipped when none of them is requested.
+ */
+@Repository
+public class BookViewRepository {
+    private static final String SELECT_BOOKS = """
+            SELECT id, version%s
+            FROM book WHERE id IN (:ids)""";
+    private static final String SELECT_RELATION = """
+            SELECT %d AS relation, r.book_id, t.id, t.name
+            FROM %s r JOIN %s t ON t.id = r.%s
+            WHERE r.book_id IN (:ids)""";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public BookViewRepository(JdbcTemplate jdbcTemplate) {
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public Optional<BookResponseDto> findById(long id) {
+        return findById(id, BookField.ALL);
+    }
+
+    public Optional<BookResponseDto> findById(long id, Set<BookField> fields) {
+        return findAllById(List.of(id), fields).stream().findFirst();
+    }
+
+    public List<BookResponseDto> findAllById(List<Long> ids) {
+        return findAllById(ids, BookField.ALL);
+    }
+
+    /**
+     * @param fields the properties to read, the id is always read; the others are left null
+     * @return the books found, in the order of the ids
+     */
+    public List<BookResponseDto> findAllById(List<Long> ids, Set<BookField> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, List<Long>> params = Map.of("ids", ids);
+        List<BookField> columns = fields.stream()
+                .filter(field -> !field.isRelation() && field != BookField.ID)
+                .toList();
+        String selectBooks = String.format(SELECT_BOOKS, columns.stream()
+                .map(field -> ", " + field.getColumn())
+                .collect(Collectors.joining()));
+        Map<Long, BookResponseDto> books = new HashMap<>();
+        namedJdbcTemplate.query(selectBooks, params, rs -> {
+            BookResponseDto book = toBook(rs, columns);
+            books.put(book.getId(), book);
+        });
+        if (books.isEmpty()) {
+            return List.of();
+        }
+
+        List<BookRelation> relations = fields.stream()
+                .filter(BookField::isRelation)
+                .map(BookField::getRelation)
+                .toList();
+        if (!relations.isEmpty()) {
+            readRelations(books, relations, params);
+        }
+
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void readRelations(Map<Long, BookResponseDto> books, List<BookRelation> relations,
+                               Map<String, List<Long>> params) {
+        for (BookResponseDto book : books.values()) {
+            book.setAuthors(relations.contains(BookRelation.AUTHORS) ? new LinkedHashSet<>() : null);
+            book.setKeywords(relations.contains(BookRelation.KEYWORDS) ? new LinkedHashSet<>() : null);
+            book.setLanguages(relations.contains(BookRelation.LANGUAGES) ? new LinkedHashSet<>() : null);
+        }
+        String selectRelations = relations.stream()
+                .map(relation -> String.format(SELECT_RELATION, relation.ordinal(), relation.getJoinTable(),
+                        relation.getTable(), relation.getColumn()))
+                .collect(Collectors.joining("\nUNION ALL\n", "", "\nORDER BY name"));
+        namedJdbcTemplate.query(selectRelations, params, rs -> {
+            BookResponseDto book = books.get(rs.getLong("book_id"));
+            long id = rs.getLong("id");
+            String name = rs.getString("name");
+            switch (BookRelation.values()[rs.getInt("relation")]) {
+                case AUTHORS -> book.getAuthors().add(new AuthorResponseDto(name, id));
+                case KEYWORDS -> book.getKeywords().add(new KeywordResponseDto(name, id));
+                case LANGUAGES -> book.getLanguages().add(new LanguageResponseDto(name, id));
+            }
+        });
+    }
+
+    private static BookResponseDto toBook(ResultSet rs, List<BookField> columns) throws SQLException {
+        BookResponseDto book = new BookResponseDto();
+        book.setId(rs.getLong("id"));
+        book.setVersion(rs.getLong("version"));
+        for (BookField column : columns) {
+            switch (column) {
+                case NAME -> book.setName(rs.getString("name"));
+                case FULL_TITLE -> book.setFullTitle(rs.getString("full_title"));
+                case DESCRIPTION -> book.setDescription(rs.getString("description"));
+                case PUBLISHER -> book.setPublisher(rs.getString("publisher"));
+                case ISBN -> book.setIsbn(rs.getString("isbn"));
+                case COVER -> {
+                    String cover = rs.getString("cover");
+                    book.setCover(isNull(cover) ? null : CoverType.valueOf(cover));
+                }
+                case PUBLISH_YEAR -> book.setPublishYear(rs.getObject("publish_year", Integer.class));
+                case PAGES -> book.setPages(rs.getObject("pages", Integer.class));
+                case BARCODE -> book.setBarcode(rs.getString("barcode"));
+                case STATUS -> {
+                    String status = rs.getString("status");
+                    book.setStatus(isNull(status) ? null : StatusType.valueOf(status));
+                }
+                default -> throw new IllegalArgumentException(column.name());
+            }
+        }
+        return book;
+    }
+}
@@ -0,0 +1,36 @@
+package ro.george.postelnicu.geolibrary.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The connections exports read their ids through, kept apart from the pool the rest of the application uses so that
+ * driver options meant for long forward-only reads, like MySQL's useCursorFetch, apply to them only.
+ * The connections are not pooled: an export holds one for as long as it streams.
+ */
+@Component
+public class ExportDataSource {
+    private final DataSource dataSource;
+
+    @Autowired
+    public ExportDataSource(@Value("${library.export.datasource.url:${spring.datasource.url}}") String url,
+                            @Value("${library.export.datasource.username:${spring.datasource.username}}") String username,
+                            @Value("${library.export.datasource.password:${spring.datasource.password}}") String password) {
+        this.dataSource = new DriverManagerDataSource(url, username, password);
+    }
+
+    /**
+     * Opens a read-only connection, which the caller closes.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setReadOnly(true);
+        return connection;
+    }
+}
@@ -2,17 +2,46 @@ package ro.george.postelnicu.geolibrary.repository;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ro.george.postelnicu.geolibrary.model.Keyword;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface KeywordRepository extends JpaRepository<Keyword, Long> {
-    boolean existsByNameIgnoreCase(@NotBlank String name);
+    boolean existsByNameNorm(@NotBlank String nameNorm);
 
-    boolean existsByNameIgnoreCaseAndIdIsNot(@NotBlank String name, @NotNull Long id);
+    boolean existsByNameNormAndIdIsNot(@NotBlank String nameNorm, @NotNull Long id);
 
-    Optional<Keyword> findByNameIgnoreCase(@NotBlank String name);
+    Optional<Keyword> findByNameNorm(@NotBlank String nameNorm);
+
+    List<Keyword> findByNameNormIn(@NotNull Collection<String> nameNorms);
+
+    @Query("select new ro.george.postelnicu.geolibrary.model.Suggestion(k.name, k.bookCount) from Keyword k")
+    List<Suggestion> findNamesWithBookCount();
+
+    @Query("select k.bookCount from Keyword k where k.id = :id")
+    Optional<Long> findBookCount(@NotNull Long id);
+
+    @Query("select b.id from Keyword k join k.books b where k.id = :id")
+    Set<Long> findBookIds(@NotNull Long id);
+
+    @Query("select k.version from Keyword k where k.id = :id")
+    Optional<Long> findVersion(@NotNull Long id);
+
+    /**
+     * The next page of a keyset scroll on the name index, {@code after} being the last normalized name seen.
+     */
+    List<Keyword> findByNameNormGreaterThanOrderByNameNorm(@NotNull String after, @NotNull Limit limit);
+
+    List<Keyword> findByNameNormStartingWithAndNameNormGreaterThanOrderByNameNorm(@NotBlank String prefix,
+                                                                              @NotNull String after,
+                                                                              @NotNull Limit limit);
 }
@@ -2,17 +2,46 @@ package ro.george.postelnicu.geolibrary.repository;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ro.george.postelnicu.geolibrary.model.Language;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface LanguageRepository extends JpaRepository<Language, Long> {
-    boolean existsByNameIgnoreCase(@NotBlank String name);
+    boolean existsByNameNorm(@NotBlank String nameNorm);
 
-    boolean existsByNameIgnoreCaseAndIdIsNot(@NotBlank String name, @NotNull long id);
+    boolean existsByNameNormAndIdIsNot(@NotBlank String nameNorm, @NotNull long id);
 
-    Optional<Language> findByNameIgnoreCase(@NotBlank String name);
+    Optional<Language> findByNameNorm(@NotBlank String nameNorm);
+
+    List<Language> findByNameNormIn(@NotNull Collection<String> nameNorms);
+
+    @Query("select new ro.george.postelnicu.geolibrary.model.Suggestion(l.name, l.bookCount) from Language l")
+    List<Suggestion> findNamesWithBookCount();
+
+    @Query("select l.bookCount from Language l where l.id = :id")
+    Optional<Long> findBookCount(@NotNull Long id);
+
+    @Query("select b.id from Language l join l.books b where l.id = :id")
+    Set<Long> findBookIds(@NotNull Long id);
+
+    @Query("select l.version from Language l where l.id = :id")
+    Optional<Long> findVersion(@NotNull Long id);
+
+    /**
+     * The next page of a keyset scroll on the name index, {@code after} being the last normalized name seen.
+     */
+    List<Language> findByNameNormGreaterThanOrderByNameNorm(@NotNull String after, @NotNull Limit limit);
+
+    List<Language> findByNameNormStartingWithAndNameNormGreaterThanOrderByNameNorm(@NotBlank String prefix,
+                                                                              @NotNull String after,
+                                                                              @NotNull Limit limit);
 }
@@ -0,0 +1,93 @@
+package ro.george.postelnicu.geolibrary.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ro.george.postelnicu.geolibrary.model.Author;
+import ro.george.postelnicu.geolibrary.model.Keyword;
+import ro.george.postelnicu.geolibrary.model.Language;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
+
+/**
+ * Writes authors, keywords and languages many at a time, which JPA cannot batch because of their identity ids.
+ */
+@Repository
+public class NameJdbcRepository {
+    public static final String AUTHOR_TABLE = "author";
+    public static final String KEYWORD_TABLE = "keyword";
+    public static final String LANGUAGE_TABLE = "language";
+    private static final String INSERT_NAMES = "INSERT INTO %s (name, name_norm) VALUES %s";
+    private static final String ROW = "(?, ?)";
+    private static final String SELECT_ID = "SELECT id FROM %s WHERE name_norm = ?";
+    private static final String ADD_TO_BOOK_COUNT = "UPDATE %s SET book_count = book_count + ? WHERE id IN (%s)";
+
+    private static final Map<String, Class<?>> ENTITIES = Map.of(
+            AUTHOR_TABLE, Author.class,
+            KEYWORD_TABLE, Keyword.class,
+            LANGUAGE_TABLE, Language.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecondLevelCache secondLevelCache;
+
+    @Autowired
+    public NameJdbcRepository(JdbcTemplate jdbcTemplate, SecondLevelCache secondLevelCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+    }
+
+    /**
+     * Inserts all the names in one statement, filling name_norm the way the entities do.
+     *
+     * @param table one of author, keyword or language
+     */
+    public void insertAll(String table, Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(names.size() * 2);
+        for (String name : names) {
+            args.add(name);
+            args.add(normalize(name));
+        }
+        String rows = String.join(", ", Collections.nCopies(names.size(), ROW));
+        jdbcTemplate.update(String.format(INSERT_NAMES, table, rows), args.toArray());
+    }
+
+    /**
+     * @param table one of author, keyword or language
+     */
+    public Optional<Long> findId(String table, String name) {
+        return jdbcTemplate.queryForList(String.format(SELECT_ID, table), Long.class, normalize(name)).stream()
+                .findFirst();
+    }
+
+    /**
+     * Moves the book_count of each id by its delta, with one statement per distinct delta.
+     *
+     * @param table  one of author, keyword or language
+     * @param deltas the number of links each id gained, negative when it lost links
+     */
+    public void addToBookCounts(String table, Map<Long, Integer> deltas) {
+        Map<Integer, List<Long>> idsByDelta = deltas.entrySet().stream()
+                .filter(delta -> delta.getValue() != 0)
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        idsByDelta.forEach((delta, ids) -> {
+            List<Object> args = new ArrayList<>(ids.size() + 1);
+            args.add(delta);
+            args.addAll(ids);
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            jdbcTemplate.update(String.format(ADD_TO_BOOK_COUNT, table, placeholders), args.toArray());
+            secondLevelCache.evictEntities(ENTITIES.get(table), ids);
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package ro.george.postelnicu.geolibrary.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+
+/**
+ * Evicts the rows the JDBC repositories write behind Hibernate's back from the second-level cache.
+ * Evicting again once the transaction ends drops what concurrent readers cached from before the write.
+ */
+@Component
+public class SecondLevelCache {
+    private final Cache cache;
+
+    @Autowired
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evictEntities(Class<?> type, Collection<Long> ids) {
+        evictNowAndAfterCompletion(() -> ids.forEach(id -> cache.evictEntityData(type, id)));
+    }
+
+    public void evictCollection(Class<?> owner, String property, Long id) {
+        evictNowAndAfterCompletion(() -> cache.evictCollectionData(owner.getName() + "." + property, id));
+    }
+
+    private static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ro.george.postelnicu.geolibrary.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
@@ -8,81 +10,213 @@ import ro.george.postelnicu.geolibrary.dto.author.AuthorsDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyLinkedException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
+import ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException;
 import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Author;
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
 import ro.george.postelnicu.geolibrary.repository.AuthorRepository;
+import ro.george.postelnicu.geolibrary.repository.BookJdbcRepository;
+import ro.george.postelnicu.geolibrary.repository.NameJdbcRepository;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 import ro.george.postelnicu.geolibrary.util.StringUtil;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
+import static org.springframework.transaction.annotation.Propagation.REQUIRED;
 import static ro.george.postelnicu.geolibrary.model.EntityName.AUTHOR;
+import static ro.george.postelnicu.geolibrary.repository.NameJdbcRepository.AUTHOR_TABLE;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
 import static ro.george.postelnicu.geolibrary.util.StringUtil.splitCapitalizeAndJoin;
 
 @Service
 public class AuthorService {
+    private static final int BULK_CHUNK_SIZE = 1000;
     private final AuthorRepository repository;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final NameJdbcRepository nameRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
 
     @Autowired
-    public AuthorService(AuthorRepository repository) {
+    public AuthorService(AuthorRepository repository, BookJdbcRepository bookJdbcRepository,
+                       NameJdbcRepository nameRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       CatalogVersion catalogVersion) {
         this.repository = repository;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.nameRepository = nameRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
     }
 
+    /**
+     * Creates the names which do not exist yet, checking and inserting them a chunk at a time.
+     *
+     * @return every distinct name of the request, with its id and whether it was created now
+     */
     @Transactional
-    public List<Author> createBulk(AuthorsDto request) {
-        return request.getAuthors().stream()
+    public List<BulkItem> createBulk(AuthorsDto request) {
+        List<String> names = request.getAuthors().stream()
                 .map(StringUtil::splitCapitalizeAndJoin)
-                .map(AuthorDto::new)
-                .map(this::create)
-                .collect(Collectors.toList());
+                .distinct()
+                .toList();
+
+        List<BulkItem> items = new ArrayList<>(names.size());
+        for (int from = 0; from < names.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + BULK_CHUNK_SIZE, names.size()));
+            Set<String> created = new HashSet<>();
+            Map<String, Author> authors = createAllIfNotExisting(chunk, created);
+            chunk.forEach(name -> items.add(
+                    new BulkItem(name, authors.get(name).getId(), created.contains(normalize(name)))));
+        }
+        return items;
     }
 
     @Transactional
     public Author create(AuthorDto authorDto) {
         Author author = LibraryMapper.INSTANCE.toAuthor(authorDto);
 
-        if (repository.existsByNameIgnoreCase(authorDto.getName())) {
+        if (repository.existsByNameNorm(normalize(authorDto.getName()))) {
             throw new EntityAlreadyExistException(AUTHOR, splitCapitalizeAndJoin(authorDto.getName()));
         }
 
+        markWrite();
         return repository.save(author);
     }
 
     @Transactional
     public Author createIfNotExisting(AuthorDto authorDto) {
-        return repository.findByNameIgnoreCase(authorDto.getName())
+        return repository.findByNameNorm(normalize(authorDto.getName()))
                 .orElseGet(() -> create(authorDto));
     }
 
+    /**
+     * Looks all the names up in one query and inserts the missing ones in one statement.
+     *
+     * @return the author of every given name
+     */
     @Transactional
+    public Map<String, Author> createAllIfNotExisting(Collection<String> names) {
+        return createAllIfNotExisting(names, new HashSet<>());
+    }
+
+    /**
+     * @param created receives the normalized names inserted by this call
+     */
+    private Map<String, Author> createAllIfNotExisting(Collection<String> names, Set<String> created) {
+        Map<String, Author> authors = repository.findByNameNormIn(normalize(names)).stream()
+                .collect(Collectors.toMap(author -> normalize(author.getName()), Function.identity()));
+
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String name : names) {
+            if (!authors.containsKey(normalize(name))) {
+                missing.putIfAbsent(normalize(name), LibraryMapper.INSTANCE.toAuthor(new AuthorDto(name)).getName());
+            }
+        }
+        if (!missing.isEmpty()) {
+            markWrite();
+            nameRepository.insertAll(AUTHOR_TABLE, missing.values());
+            created.addAll(missing.keySet());
+            repository.findByNameNormIn(missing.keySet())
+                    .forEach(author -> authors.put(normalize(author.getName()), author));
+        }
+
+        return names.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), name -> authors.get(normalize(name))));
+    }
+
+    @Transactional(readOnly = true, propagation = REQUIRED)
     public Author read(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(AUTHOR, id));
     }
 
+    /**
+     * Reads only the version of the author, enough to answer a conditional request.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long readVersion(Long id) {
+        return repository.findVersion(id)
+                .orElseThrow(() -> new EntityNotFoundException(AUTHOR, id));
+    }
+
+    /**
+     * Reads the counter kept on the author, so it costs the same however many books use it.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long countBooks(Long id) {
+        return repository.findBookCount(id)
+                .orElseThrow(() -> new EntityNotFoundException(AUTHOR, id));
+    }
+
+    /**
+     * Reads the authors in name order, after the normalized name of the last one seen, with one query on the name
+     * index.
+     *
+     * @param after null for the first page
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public List<Author> list(String prefix, String after, int limit) {
+        String key = normalize(prefix.trim());
+        String from = Objects.toString(after, "");
+        return key.isEmpty()
+                ? repository.findByNameNormGreaterThanOrderByNameNorm(from, Limit.of(limit))
+                : repository.findByNameNormStartingWithAndNameNormGreaterThanOrderByNameNorm(key, from, Limit.of(limit));
+    }
+
     @Transactional
     public Author update(Long id, AuthorDto authorDto) {
-        Author author = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(AUTHOR, id));
+        return update(id, authorDto, version -> true);
+    }
+
+    /**
+     * @param versionCheck tells whether the version the author is at can be overwritten
+     */
+    @Transactional
+    public Author update(Long id, AuthorDto authorDto, LongPredicate versionCheck) {
+        Author author = read(id);
 
-        if (repository.existsByNameIgnoreCaseAndIdIsNot(authorDto.getName(), id)) {
+        if (!versionCheck.test(author.getVersion())) {
+            throw new EntityVersionMismatchException(AUTHOR, id, ETagUtil.of(author.getVersion()));
+        }
+        if (repository.existsByNameNormAndIdIsNot(normalize(authorDto.getName()), id)) {
             throw new EntityAlreadyExistException(AUTHOR, splitCapitalizeAndJoin(authorDto.getName()));
         }
 
+        markWrite();
+        String previousName = author.getName();
         LibraryMapper.INSTANCE.updateAuthorFromDto(authorDto, author);
+        Set<Long> bookIds = repository.findBookIds(id);
+        if (!previousName.equals(author.getName())) {
+            bookJdbcRepository.incrementVersions(bookIds);
+        }
+        eventPublisher.publishEvent(new BookIndexEvent(bookIds));
 
         return repository.save(author);
     }
 
     @Transactional
     public void delete(Long id) {
-        Author author = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(AUTHOR, id));
+        Author author = read(id);
 
-        if (author.getBooks().isEmpty()) {
+        if (countBooks(id) == 0) {
+            markWrite();
             repository.delete(author);
         } else {
             throw new EntityAlreadyLinkedException(AUTHOR, author.getName());
         }
     }
+
+    /**
+     * Marks the catalog as written and has the authors suggested while typing reloaded once the write commits.
+     */
+    private void markWrite() {
+        catalogVersion.markWrite();
+        eventPublisher.publishEvent(new SuggestionEvent(Set.of(SuggestionSource.AUTHORS)));
+    }
 }
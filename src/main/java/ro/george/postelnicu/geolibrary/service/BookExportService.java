@@ -0,0 +1,141 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
+import ro.george.postelnicu.geolibrary.dto.language.LanguageDto;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+import ro.george.postelnicu.geolibrary.repository.BookSpecificationRepository;
+import ro.george.postelnicu.geolibrary.repository.BookViewRepository;
+import ro.george.postelnicu.geolibrary.repository.ExportDataSource;
+import ro.george.postelnicu.geolibrary.util.CsvWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static ro.george.postelnicu.geolibrary.service.BookRecordReader.MULTI_VALUE_SEPARATOR;
+
+/**
+ * Writes the matching books out as they are read, so memory does not grow with the size of the catalog.
+ * The ids come from a forward-only cursor on a connection of the {@link ExportDataSource}, and the books are projected
+ * by {@link BookViewRepository} a batch at a time, each batch in a transaction of its own, so no pooled connection is
+ * held while the output is written.
+ */
+@Service
+public class BookExportService {
+    /**
+     * The columns read by the CSV import, after the id, so an export can be imported again.
+     */
+    static final List<String> CSV_HEADER = List.of("id", "name", "fullTitle", "description", "publisher", "isbn",
+            "cover", "publishYear", "pages", "barcode", "status", "authors", "keywords", "languages");
+
+    private final BookSpecificationRepository repository;
+    private final BookViewRepository viewRepository;
+    private final ExportDataSource exportDataSource;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public BookExportService(BookSpecificationRepository repository, BookViewRepository viewRepository,
+                             ExportDataSource exportDataSource, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${library.export.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.viewRepository = viewRepository;
+        this.exportDataSource = exportDataSource;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes one book per line, or per CSV record after a header, in id order; the output is flushed after
+     * every batch.
+     *
+     * @return the number of books written
+     */
+    public long export(@NotNull @Valid BookSearchCriteria searchCriteria, ImportFormat format, Writer out)
+            throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        if (format == ImportFormat.CSV) {
+            csv.write(CSV_HEADER);
+        }
+
+        long count = 0;
+        List<Long> batch = new ArrayList<>(batchSize);
+        try (Connection connection = exportDataSource.getConnection();
+             Stream<Long> ids = repository.streamIds(searchCriteria, batchSize, connection)) {
+            for (Long id : (Iterable<Long>) ids::iterator) {
+                batch.add(id);
+                if (batch.size() == batchSize) {
+                    count += write(batch, format, out, csv);
+                    batch.clear();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Could not read the ids to export", e);
+        }
+        count += write(batch, format, out, csv);
+        out.flush();
+        return count;
+    }
+
+    private int write(List<Long> ids, ImportFormat format, Writer out, CsvWriter csv) throws IOException {
+        List<BookResponseDto> books = Objects.requireNonNull(
+                transactionTemplate.execute(status -> viewRepository.findAllById(ids)));
+        for (BookResponseDto book : books) {
+            switch (format) {
+                case NDJSON -> {
+                    out.write(objectMapper.writeValueAsString(book));
+                    out.write('\n');
+                }
+                case CSV -> csv.write(toCsvRecord(book));
+            }
+        }
+        out.flush();
+        return books.size();
+    }
+
+    private static List<String> toCsvRecord(BookResponseDto book) {
+        return List.of(book.getId().toString(),
+                book.getName(),
+                Objects.toString(book.getFullTitle(), ""),
+                Objects.toString(book.getDescription(), ""),
+                Objects.toString(book.getPublisher(), ""),
+                Objects.toString(book.getIsbn(), ""),
+                isNull(book.getCover()) ? "" : book.getCover().name(),
+                Objects.toString(book.getPublishYear(), ""),
+                Objects.toString(book.getPages(), ""),
+                Objects.toString(book.getBarcode(), ""),
+                isNull(book.getStatus()) ? "" : book.getStatus().name(),
+                join(book.getAuthors(), AuthorDto::getName),
+                join(book.getKeywords(), KeywordDto::getName),
+                join(book.getLanguages(), LanguageDto::getName));
+    }
+
+    private static <T> String join(Collection<T> related, Function<T, String> name) {
+        return related.stream().map(name).collect(Collectors.joining(MULTI_VALUE_SEPARATOR));
+    }
+}
@@ -0,0 +1,52 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ro.george.postelnicu.geolibrary.model.BookImportSummary;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Imports the file set in {@code library.import.file} on startup; a {@code .csv} file is read as CSV, anything else
+ * as NDJSON. The report is written next to it, as {@code <file>.report.ndjson}.
+ */
+@Component
+@ConditionalOnProperty("library.import.file")
+public class BookFileImporter implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(BookFileImporter.class);
+    private static final String REPORT_SUFFIX = ".report.ndjson";
+
+    private final BookImportService importService;
+    private final Path file;
+
+    @Autowired
+    public BookFileImporter(BookImportService importService, @Value("${library.import.file}") Path file) {
+        this.importService = importService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        ImportFormat format = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ?
+                ImportFormat.CSV : ImportFormat.NDJSON;
+        Path reportFile = file.resolveSibling(file.getFileName() + REPORT_SUFFIX);
+
+        try (Reader reader = Files.newBufferedReader(file); Writer report = Files.newBufferedWriter(reportFile)) {
+            BookImportSummary summary = importService.importBooks(reader, format, report);
+            log.info("Imported {}: {} books created, {} records failed, see {}",
+                    file, summary.created(), summary.failed(), reportFile);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
+import ro.george.postelnicu.geolibrary.exception.EntityValidationException;
+import ro.george.postelnicu.geolibrary.mapper.BookMapper;
+import ro.george.postelnicu.geolibrary.model.Author;
+import ro.george.postelnicu.geolibrary.model.BookImportResult;
+import ro.george.postelnicu.geolibrary.model.BookImportSummary;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+import ro.george.postelnicu.geolibrary.model.Keyword;
+import ro.george.postelnicu.geolibrary.model.Language;
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
+import ro.george.postelnicu.geolibrary.repository.BookJdbcRepository;
+import ro.george.postelnicu.geolibrary.repository.NameJdbcRepository;
+import ro.george.postelnicu.geolibrary.service.BookRecordReader.BookRecord;
+import ro.george.postelnicu.geolibrary.util.StringUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static ro.george.postelnicu.geolibrary.model.BookRelation.*;
+import static ro.george.postelnicu.geolibrary.model.EntityName.BOOK;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
+
+/**
+ * Imports books from a stream of records, one transaction per chunk of records.
+ * Only the current chunk is held in memory; the books are written with batched JDBC and the persistence context
+ * is cleared after every chunk. A record failing validation is reported and skipped, a chunk failing in the database
+ * is retried record by record so only the offending records are lost.
+ */
+@Service
+public class BookImportService {
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookJdbcRepository jdbcRepository;
+    private final NameJdbcRepository nameRepository;
+    private final BookService bookService;
+    private final IsbnService isbnService;
+    private final AuthorService authorService;
+    private final KeywordService keywordService;
+    private final LanguageService languageService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public BookImportService(BookJdbcRepository jdbcRepository, NameJdbcRepository nameRepository,
+                             BookService bookService, IsbnService isbnService,
+                             AuthorService authorService, KeywordService keywordService,
+                             LanguageService languageService, Validator validator, ObjectMapper objectMapper,
+                             EntityManager entityManager, ApplicationEventPublisher eventPublisher,
+                             CatalogVersion catalogVersion, PlatformTransactionManager transactionManager,
+                             @Value("${library.import.chunk-size:500}") int chunkSize) {
+        this.jdbcRepository = jdbcRepository;
+        this.nameRepository = nameRepository;
+        this.bookService = bookService;
+        this.isbnService = isbnService;
+        this.authorService = authorService;
+        this.keywordService = keywordService;
+        this.languageService = languageService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes the result of every record to the report as one JSON object per line.
+     */
+    public BookImportSummary importBooks(Reader reader, ImportFormat format, Writer report) throws IOException {
+        try {
+            BookImportSummary summary = importBooks(reader, format, result -> {
+                try {
+                    report.write(objectMapper.writeValueAsString(result));
+                    report.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            report.flush();
+            return summary;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @param report receives the result of every record, in the order of the input
+     */
+    public BookImportSummary importBooks(Reader reader, ImportFormat format, Consumer<BookImportResult> report)
+            throws IOException {
+        long created = 0;
+        long failed = 0;
+        try (BookRecordReader records = new BookRecordReader(reader, format, objectMapper)) {
+            List<BookRecord> chunk = new ArrayList<>(chunkSize);
+            BookRecord record;
+            do {
+                record = records.next();
+                if (nonNull(record)) {
+                    chunk.add(record);
+                }
+                if (chunk.size() == chunkSize || (isNull(record) && !chunk.isEmpty())) {
+                    for (BookImportResult result : importChunk(chunk)) {
+                        if (result.hasError()) {
+                            failed++;
+                        } else {
+                            created++;
+                        }
+                        report.accept(result);
+                    }
+                    chunk.clear();
+                }
+            } while (nonNull(record));
+        }
+        log.info("Imported {} books, {} records failed", created, failed);
+        return new BookImportSummary(created, failed);
+    }
+
+    private List<BookImportResult> importChunk(List<BookRecord> chunk) {
+        try {
+            return transactionTemplate.execute(status -> writeChunk(chunk));
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            if (chunk.size() == 1) {
+                BookRecord record = chunk.getFirst();
+                log.warn("Could not import the record at line {}", record.line(), e);
+                return List.of(BookImportResult.failed(record.line(), nameOf(record),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+            }
+            return chunk.stream()
+                    .flatMap(record -> importChunk(List.of(record)).stream())
+                    .toList();
+        }
+    }
+
+    private List<BookImportResult> writeChunk(List<BookRecord> chunk) {
+        List<BookDto> parsed = chunk.stream().map(BookRecord::book).filter(Objects::nonNull).toList();
+        Set<String> existingNames = jdbcRepository.findExisting("name_norm", normalized(parsed, BookDto::getName));
+        Set<String> existingIsbns = jdbcRepository.findExisting("isbn_norm", normalized(parsed, BookDto::getIsbn));
+        Set<String> existingBarcodes = jdbcRepository.findExisting("barcode_norm",
+                normalized(parsed, BookDto::getBarcode));
+
+        BookImportResult[] results = new BookImportResult[chunk.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BookRecord record = chunk.get(i);
+            String error = nonNull(record.error()) ? record.error() : validate(record.book());
+            if (isNull(error)) {
+                error = findDuplicate(record.book(), existingNames, existingIsbns, existingBarcodes);
+            }
+            if (nonNull(error)) {
+                results[i] = BookImportResult.failed(record.line(), nameOf(record), error);
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            catalogVersion.markWrite();
+            List<BookDto> books = accepted.stream().map(i -> chunk.get(i).book()).toList();
+            List<Long> ids = jdbcRepository.insertAll(books.stream().map(BookMapper.INSTANCE::toBook).toList());
+            link(AUTHORS,
+                    links(ids, books, BookDto::getAuthors, authorService::createAllIfNotExisting, Author::getId));
+            link(KEYWORDS,
+                    links(ids, books, BookDto::getKeywords, keywordService::createAllIfNotExisting, Keyword::getId));
+            link(LANGUAGES,
+                    links(ids, books, BookDto::getLanguages, languageService::createAllIfNotExisting, Language::getId));
+            eventPublisher.publishEvent(new BookIndexEvent(Set.copyOf(ids)));
+            eventPublisher.publishEvent(new SuggestionEvent(EnumSet.allOf(SuggestionSource.class)));
+
+            for (int j = 0; j < accepted.size(); j++) {
+                BookRecord record = chunk.get(accepted.get(j));
+                results[accepted.get(j)] = BookImportResult.created(record.line(), nameOf(record), ids.get(j));
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return Arrays.asList(results);
+    }
+
+    private String validate(BookDto book) {
+        Set<ConstraintViolation<BookDto>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            bookService.validateNameIsContainedInFullTitle(book.getName(), book.getFullTitle());
+            isbnService.isValid(book.getIsbn());
+        } catch (EntityValidationException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Checks the book against the database and against the records accepted before it in the same chunk,
+     * adding its values to the taken ones when it is unique.
+     */
+    private static String findDuplicate(BookDto book, Set<String> names, Set<String> isbns, Set<String> barcodes) {
+        String name = normalize(book.getName());
+        String isbn = normalize(book.getIsbn());
+        String barcode = normalize(book.getBarcode());
+        if (names.contains(name)) {
+            return new EntityAlreadyExistException(BOOK, book.getName()).getMessage();
+        }
+        if (isbns.contains(isbn)) {
+            return new EntityAlreadyExistException(BOOK, Set.of(book.getName(), book.getIsbn())).getMessage();
+        }
+        if (nonNull(barcode) && barcodes.contains(barcode)) {
+            return new EntityAlreadyExistException(BOOK, Set.of(book.getName(), book.getBarcode())).getMessage();
+        }
+        names.add(name);
+        isbns.add(isbn);
+        if (nonNull(barcode)) {
+            barcodes.add(barcode);
+        }
+        return null;
+    }
+
+    private void link(BookRelation relation, List<long[]> links) {
+        jdbcRepository.insertRelations(relation, links);
+        nameRepository.addToBookCounts(relation.getTable(), links.stream()
+                .collect(Collectors.groupingBy(link -> link[1], Collectors.summingInt(link -> 1))));
+    }
+
+    /**
+     * Resolves the relation names of the whole chunk at once and pairs the resulting ids with the books.
+     */
+    private static <T> List<long[]> links(List<Long> bookIds, List<BookDto> books,
+                                          Function<BookDto, Set<String>> names,
+                                          Function<Set<String>, Map<String, T>> resolver, Function<T, Long> id) {
+        Set<String> chunkNames = books.stream()
+                .map(names)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .filter(name -> nonNull(name) && !name.isBlank())
+                .collect(Collectors.toSet());
+        if (chunkNames.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, T> resolved = resolver.apply(chunkNames);
+        List<long[]> links = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            Set<String> relationNames = names.apply(books.get(i));
+            if (isNull(relationNames)) {
+                continue;
+            }
+            long bookId = bookIds.get(i);
+            relationNames.stream()
+                    .filter(chunkNames::contains)
+                    .map(name -> id.apply(resolved.get(name)))
+                    .distinct()
+                    .forEach(relationId -> links.add(new long[]{bookId, relationId}));
+        }
+        return links;
+    }
+
+    private static Set<String> normalized(List<BookDto> books, Function<BookDto, String> field) {
+        return books.stream()
+                .map(field)
+                .filter(Objects::nonNull)
+                .map(StringUtil::normalize)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static String nameOf(BookRecord record) {
+        return isNull(record.book()) ? null : record.book().getName();
+    }
+}
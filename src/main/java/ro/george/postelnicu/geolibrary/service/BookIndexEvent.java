@@ -0,0 +1,10 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import java.util.Set;
+
+/**
+ * Published inside a write transaction; the {@link BookSearchIndex} re-reads these books once it commits and the
+ * {@link BookResponseCache} drops them.
+ */
+public record BookIndexEvent(Set<Long> bookIds) {
+}
@@ -0,0 +1,126 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+import ro.george.postelnicu.geolibrary.util.CsvReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Reads the records of an import one at a time, so memory does not grow with the size of the input.
+ * A record that cannot be parsed is returned with its error instead of stopping the import.
+ */
+class BookRecordReader implements Closeable {
+    static final String MULTI_VALUE_SEPARATOR = "|";
+    private static final Set<String> MULTI_VALUE_COLUMNS = Set.of("authors", "keywords", "languages");
+
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private BufferedReader lines;
+    private CsvReader csv;
+    private List<String> header;
+    private long line;
+
+    BookRecordReader(Reader reader, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        switch (format) {
+            case NDJSON -> lines = new BufferedReader(reader);
+            case CSV -> {
+                csv = new CsvReader(reader);
+                header = csv.next();
+                if (header == null) {
+                    header = List.of();
+                }
+                header = header.stream().map(String::trim).toList();
+            }
+        }
+    }
+
+    /**
+     * @return the next record, null once the input is exhausted
+     */
+    BookRecord next() throws IOException {
+        return switch (format) {
+            case NDJSON -> nextJson();
+            case CSV -> nextCsv();
+        };
+    }
+
+    private BookRecord nextJson() throws IOException {
+        String json;
+        do {
+            json = lines.readLine();
+            line++;
+            if (json == null) {
+                return null;
+            }
+        } while (json.isBlank());
+
+        try {
+            return new BookRecord(line, objectMapper.readValue(json, BookDto.class), null);
+        } catch (JsonProcessingException e) {
+            return new BookRecord(line, null, e.getOriginalMessage());
+        }
+    }
+
+    private BookRecord nextCsv() throws IOException {
+        long start;
+        List<String> fields;
+        do {
+            start = csv.getLine();
+            fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isBlank());
+
+        if (fields.size() != header.size()) {
+            return new BookRecord(start, null,
+                    String.format("Expected %d fields but found %d", header.size(), fields.size()));
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (MULTI_VALUE_COLUMNS.contains(header.get(i))) {
+                values.put(header.get(i), Arrays.stream(value.split("\\" + MULTI_VALUE_SEPARATOR))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .toList());
+            } else {
+                values.put(header.get(i), value);
+            }
+        }
+        try {
+            return new BookRecord(start, objectMapper.convertValue(values, BookDto.class), null);
+        } catch (IllegalArgumentException e) {
+            return new BookRecord(start, null, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (lines != null) {
+            lines.close();
+        }
+        if (csv != null) {
+            csv.close();
+        }
+    }
+
+    /**
+     * @param book  null when the record could not be parsed
+     * @param error why the record could not be parsed
+     */
+    record BookRecord(long line, BookDto book, String error) {
+    }
+}
@@ -0,0 +1,145 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
+
+/**
+ * Bounded LRU cache of the JSON representation of single books, serialized once and, past a minimum size,
+ * gzip compressed once, so a hit is written out without touching the database or Jackson.
+ * Entries are dropped once a {@link BookIndexEvent} naming their book commits; an entry read while a write was in
+ * flight is never stored. Publishes the same meters as the {@link BookSearchCache}, tagged with cache=book-response.
+ */
+@Service
+public class BookResponseCache {
+    private static final String CACHE_NAME = "book-response";
+
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final int gzipMinSize;
+    private final Map<Long, SerializedBook> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+
+    @Autowired
+    public BookResponseCache(CatalogVersion catalogVersion, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${library.book.cache.max-size:1000}") int maxSize,
+                             @Value("${library.book.cache.gzip-min-size:512}") int gzipMinSize) {
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.gzipMinSize = gzipMinSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SerializedBook> eldest) {
+                boolean evict = size() > BookResponseCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        this.hits = cacheCounter(meterRegistry, "cache.gets", "result", "hit");
+        this.misses = cacheCounter(meterRegistry, "cache.gets", "result", "miss");
+        this.puts = cacheCounter(meterRegistry, "cache.puts");
+        this.evictions = cacheCounter(meterRegistry, "cache.evictions");
+        meterRegistry.gauge("cache.size", Tags.of("cache", CACHE_NAME),
+                this, BookResponseCache::size);
+    }
+
+    /**
+     * Returns the cached representation of the book, or reads, serializes and caches it.
+     */
+    public SerializedBook get(Long id, Supplier<BookResponseDto> read) {
+        SerializedBook cached = lookup(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long version = catalogVersion.current();
+        SerializedBook serialized = serialize(read.get());
+        if (maxSize > 0) {
+            store(id, version, serialized);
+        }
+        return serialized;
+    }
+
+    @TransactionalEventListener(phase = AFTER_COMMIT)
+    public void onBookIndexEvent(BookIndexEvent event) {
+        evict(event);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized SerializedBook lookup(Long id) {
+        return entries.get(id);
+    }
+
+    private synchronized void store(Long id, long version, SerializedBook serialized) {
+        // a write committed while reading could have been missed by the read
+        if (catalogVersion.isCurrent(version)) {
+            entries.put(id, serialized);
+            puts.increment();
+        }
+    }
+
+    private synchronized void evict(BookIndexEvent event) {
+        entries.keySet().removeAll(event.bookIds());
+    }
+
+    private SerializedBook serialize(BookResponseDto book) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(book);
+            return new SerializedBook(book.getVersion(), json, json.length >= gzipMinSize ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String name, String... tags) {
+        return Counter.builder(name)
+                .tag("cache", CACHE_NAME)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param gzip the gzip compressed json, null when the json is too small to be worth compressing
+     */
+    public record SerializedBook(long version, byte[] json, byte[] gzip) {
+    }
+}
@@ -0,0 +1,122 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the book ids found by a search, keyed by the canonical criteria and the page.
+ * Entries are tagged with the {@link CatalogVersion} they were computed at and are only served at that version.
+ * A search the {@link BookSearchIndex} answers is as fresh as one the database answers, since the index is not used
+ * while it has committed writes left to apply.
+ * Publishes the usual cache.gets, cache.puts, cache.evictions and cache.size meters, tagged with cache=book-search.
+ */
+@Service
+public class BookSearchCache {
+    private static final String CACHE_NAME = "book-search";
+
+    private final CatalogVersion catalogVersion;
+    private final int maxSize;
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+
+    @Autowired
+    public BookSearchCache(CatalogVersion catalogVersion, MeterRegistry meterRegistry,
+                           @Value("${library.search.cache.max-size:1000}") int maxSize) {
+        this.catalogVersion = catalogVersion;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                boolean evict = size() > BookSearchCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        this.hits = cacheCounter(meterRegistry, "cache.gets", "result", "hit");
+        this.misses = cacheCounter(meterRegistry, "cache.gets", "result", "miss");
+        this.puts = cacheCounter(meterRegistry, "cache.puts");
+        this.evictions = cacheCounter(meterRegistry, "cache.evictions");
+        meterRegistry.gauge("cache.size", Tags.of("cache", CACHE_NAME),
+                this, BookSearchCache::size);
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns the cached page of ids for this search, or computes and caches it; the result is never older than
+     * the last committed write.
+     */
+    public Page<Long> get(BookSearchCriteria searchCriteria, Pageable pageRequest, Supplier<Page<Long>> search) {
+        if (!isEnabled()) {
+            return search.get();
+        }
+        Key key = new Key(searchCriteria.canonical(), pageRequest);
+        Optional<Page<Long>> cached = lookup(key);
+        if (cached.isPresent()) {
+            hits.increment();
+            return cached.get();
+        }
+
+        misses.increment();
+        long version = catalogVersion.current();
+        Page<Long> ids = search.get();
+        store(key, new Entry(version, ids));
+        return ids;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Optional<Page<Long>> lookup(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!catalogVersion.isCurrent(entry.version())) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.ids());
+    }
+
+    private synchronized void store(Key key, Entry entry) {
+        // a write committed while searching could have been missed by the search
+        if (catalogVersion.isCurrent(entry.version())) {
+            entries.put(key, entry);
+            puts.increment();
+        }
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String name, String... tags) {
+        return Counter.builder(name)
+                .tag("cache", CACHE_NAME)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private record Key(BookSearchCriteria searchCriteria, Pageable pageRequest) {
+    }
+
+    private record Entry(long version, Page<Long> ids) {
+    }
+}
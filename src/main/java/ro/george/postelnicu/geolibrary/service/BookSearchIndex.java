@@ -0,0 +1,268 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.repository.BookRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.transaction.TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.tokenize;
+
+/**
+ * In-memory inverted index over the name, full title and description of the books, the same fields the database
+ * full-text search matches, so a query finds the same books whichever of the two answers it.
+ * Every token of a query has to prefix an indexed token, hits are ranked by the weight of the fields they hit.
+ * Committed writes are applied by a background thread, a batch of books at a time; until every one of them is,
+ * the index reports itself not ready so that searches go to the database instead.
+ */
+@Service
+public class BookSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int REFRESH_BATCH_SIZE = 500;
+    private static final int NAME_WEIGHT = 8;
+    private static final int FULL_TITLE_WEIGHT = 4;
+    private static final int TEXT_WEIGHT = 1;
+
+    private final BookRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    @Autowired
+    public BookSearchIndex(BookRepository repository, PlatformTransactionManager transactionManager,
+                           @Value("${library.search.index.enabled:true}") boolean enabled) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return whether the index holds every committed write; the books of a write are queued before the commit
+     * moves the {@link CatalogVersion}, so a search that finds the index ready cannot miss a write committed earlier
+     */
+    public boolean isReady() {
+        return enabled && ready && pendingRefresh.isEmpty() && refreshing.isEmpty();
+    }
+
+    /**
+     * @return the ids of the books matching every token of the query, best match first
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String token : tokens) {
+                Map<Long, Integer> tokenScores = new HashMap<>();
+                for (Map<Long, Integer> posting : postings.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                    posting.forEach((bookId, weight) -> tokenScores.merge(bookId, weight, Integer::sum));
+                }
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + tokenScores.get(bookId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Only queues the books, so the committing request does not wait for them to be read again.
+     */
+    @TransactionalEventListener(phase = AFTER_COMMIT)
+    public void onBookIndexEvent(BookIndexEvent event) {
+        if (!enabled || event.bookIds().isEmpty()) {
+            return;
+        }
+        // A running rebuild may have read these books before the change, so they are replayed once it is done
+        pendingRefresh.addAll(event.bookIds());
+        scheduleRefresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Replaces the whole index with the books currently stored in the database.
+     */
+    public synchronized void rebuild() {
+        rebuilding = true;
+        NavigableMap<String, Map<Long, Integer>> newPostings = new TreeMap<>();
+        Map<Long, Map<String, Integer>> newDocuments = new HashMap<>();
+
+        Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+        boolean hasNext = true;
+        while (hasNext) {
+            Pageable current = pageable;
+            Page<Map.Entry<Long, Map<String, Integer>>> page = transactionTemplate.execute(status ->
+                    repository.findAll(current).map(book -> Map.entry(book.getId(), document(book))));
+            Objects.requireNonNull(page).forEach(entry -> {
+                newDocuments.put(entry.getKey(), entry.getValue());
+                addPostings(newPostings, entry.getKey(), entry.getValue());
+            });
+            hasNext = page.hasNext();
+            pageable = pageable.next();
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            documents = newDocuments;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuilding = false;
+        scheduleRefresh();
+        log.info("rebuild: indexed {} books and {} tokens", newDocuments.size(), newPostings.size());
+    }
+
+    private void scheduleRefresh() {
+        if (ready && !rebuilding && !pendingRefresh.isEmpty() && refreshScheduled.compareAndSet(false, true)) {
+            refreshExecutor.execute(this::refreshPending);
+        }
+    }
+
+    private void refreshPending() {
+        try {
+            while (ready && !rebuilding && !pendingRefresh.isEmpty()) {
+                Set<Long> batch = new HashSet<>();
+                Iterator<Long> pending = pendingRefresh.iterator();
+                while (pending.hasNext() && batch.size() < REFRESH_BATCH_SIZE) {
+                    Long bookId = pending.next();
+                    // marked before it leaves the queue, so the index never looks ready in between
+                    refreshing.add(bookId);
+                    batch.add(bookId);
+                    pending.remove();
+                }
+                refresh(batch);
+                refreshing.removeAll(batch);
+            }
+        } catch (RuntimeException ex) {
+            // searches go to the database until a rebuild, which also replays the books still queued
+            ready = false;
+            pendingRefresh.addAll(refreshing);
+            refreshing.clear();
+            log.error("refreshPending: the index is not used until the next rebuild", ex);
+        } finally {
+            refreshScheduled.set(false);
+        }
+        // books queued after the loop ended would otherwise wait for the next write
+        scheduleRefresh();
+    }
+
+    private void refresh(Set<Long> bookIds) {
+        Map<Long, Map<String, Integer>> refreshed = transactionTemplate.execute(status -> {
+            Map<Long, Map<String, Integer>> result = new HashMap<>();
+            repository.findAllById(bookIds).forEach(book -> result.put(book.getId(), document(book)));
+            return result;
+        });
+
+        lock.writeLock().lock();
+        try {
+            for (Long bookId : bookIds) {
+                removePostings(bookId, documents.remove(bookId));
+                Map<String, Integer> document = Objects.requireNonNull(refreshed).get(bookId);
+                if (document != null) {
+                    documents.put(bookId, document);
+                    addPostings(postings, bookId, document);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removePostings(Long bookId, Map<String, Integer> document) {
+        if (document == null) {
+            return;
+        }
+        for (String token : document.keySet()) {
+            Map<Long, Integer> posting = postings.get(token);
+            posting.remove(bookId);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static void addPostings(Map<String, Map<Long, Integer>> postings, Long bookId,
+                                    Map<String, Integer> document) {
+        document.forEach((token, weight) ->
+                postings.computeIfAbsent(token, key -> new HashMap<>()).put(bookId, weight));
+    }
+
+    private static Map<String, Integer> document(Book book) {
+        Map<String, Integer> document = new HashMap<>();
+        addTokens(document, book.getName(), NAME_WEIGHT);
+        addTokens(document, book.getFullTitle(), FULL_TITLE_WEIGHT);
+        addTokens(document, book.getDescription(), TEXT_WEIGHT);
+        return document;
+    }
+
+    private static void addTokens(Map<String, Integer> document, String text, int weight) {
+        tokenize(text).forEach(token -> document.merge(token, weight, Integer::sum));
+    }
+}
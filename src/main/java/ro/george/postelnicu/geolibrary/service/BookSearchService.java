@@ -3,29 +3,130 @@ package ro.george.postelnicu.geolibrary.service;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.model.BookField;
+import ro.george.postelnicu.geolibrary.model.BookFacets;
 import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+import ro.george.postelnicu.geolibrary.model.EstimatedPage;
 import ro.george.postelnicu.geolibrary.repository.BookSpecificationRepository;
+import ro.george.postelnicu.geolibrary.repository.BookViewRepository;
+
+import java.util.List;
+import java.util.Set;
 
 import static org.springframework.transaction.annotation.Propagation.REQUIRED;
 
 @Service
 public class BookSearchService {
+    public static final int TOP_FACET_VALUES = 10;
 
     private final BookSpecificationRepository repository;
+    private final BookViewRepository viewRepository;
+    private final BookSearchIndex searchIndex;
+    private final BookSearchCache searchCache;
+    private final int estimateLimit;
 
     @Autowired
-    public BookSearchService(BookSpecificationRepository repository) {
+    public BookSearchService(BookSpecificationRepository repository, BookViewRepository viewRepository,
+                             BookSearchIndex searchIndex, BookSearchCache searchCache,
+                             @Value("${library.search.count.estimate-limit:1000}") int estimateLimit) {
         this.repository = repository;
+        this.viewRepository = viewRepository;
+        this.searchIndex = searchIndex;
+        this.searchCache = searchCache;
+        this.estimateLimit = estimateLimit;
+    }
+
+    /**
+     * Repeated searches are answered from the {@link BookSearchCache}; only the given fields of the books are read
+     * again, projected by SQL into response DTOs.
+     */
+    @Transactional(propagation = REQUIRED, readOnly = true)
+    public Page<BookResponseDto> searchViews(@NotNull @Valid BookSearchCriteria searchCriteria,
+                                             @NotNull Pageable pageRequest, @NotNull Set<BookField> fields) {
+        Page<Long> ids = searchCache.get(searchCriteria, pageRequest, () -> searchIds(searchCriteria, pageRequest));
+        return new PageImpl<>(viewRepository.findAllById(ids.getContent(), fields), pageRequest,
+                ids.getTotalElements());
+    }
+
+    @Transactional(propagation = REQUIRED, readOnly = true)
+    public Slice<BookResponseDto> searchSliceViews(@NotNull @Valid BookSearchCriteria searchCriteria,
+                                                   @NotNull Pageable pageRequest, @NotNull Set<BookField> fields) {
+        if (isIndexed(searchCriteria, pageRequest)) {
+            Page<Long> ids = searchIndex(searchCriteria.query(), pageRequest);
+            return new PageImpl<>(viewRepository.findAllById(ids.getContent(), fields), pageRequest,
+                    ids.getTotalElements());
+        }
+        Slice<Long> ids = repository.searchSliceIds(searchCriteria, pageRequest);
+        return new SliceImpl<>(viewRepository.findAllById(ids.getContent(), fields), pageRequest, ids.hasNext());
+    }
+
+    /**
+     * Like {@link #searchViews(BookSearchCriteria, Pageable, Set)}, but the total is exact only up to the configured
+     * estimate limit; past it the page reports the limit as a lower bound.
+     */
+    @Transactional(propagation = REQUIRED, readOnly = true)
+    public EstimatedPage<BookResponseDto> searchViewsWithEstimatedCount(@NotNull @Valid BookSearchCriteria searchCriteria,
+                                                                        @NotNull Pageable pageRequest,
+                                                                        @NotNull Set<BookField> fields) {
+        Slice<BookResponseDto> slice = searchSliceViews(searchCriteria, pageRequest, fields);
+        if (slice instanceof Page<BookResponseDto> page) {
+            return new EstimatedPage<>(page.getContent(), pageRequest, page.getTotalElements(), true);
+        }
+        if (!slice.hasNext() && (slice.hasContent() || pageRequest.getOffset() == 0)) {
+            long total = pageRequest.isPaged() ? pageRequest.getOffset() + slice.getNumberOfElements() :
+                    slice.getNumberOfElements();
+            return new EstimatedPage<>(slice.getContent(), pageRequest, total, true);
+        }
+
+        long count = repository.countUpTo(searchCriteria, estimateLimit + 1);
+        boolean exact = count <= estimateLimit;
+        return new EstimatedPage<>(slice.getContent(), pageRequest, exact ? count : estimateLimit, exact);
     }
 
+    /**
+     * Computes every facet of the search with one aggregate query per facet, whatever the number of values.
+     */
     @Transactional(propagation = REQUIRED, readOnly = true)
-    public Page<Book> search(@NotNull @Valid BookSearchCriteria searchCriteria, @NotNull Pageable pageRequest) {
-        return repository.search(searchCriteria, pageRequest);
+    public BookFacets facets(@NotNull @Valid BookSearchCriteria searchCriteria) {
+        return new BookFacets(
+                repository.countBy(searchCriteria, root -> root.get("cover"), true, Integer.MAX_VALUE),
+                repository.countBy(searchCriteria, root -> root.get("status"), true, Integer.MAX_VALUE),
+                repository.countBy(searchCriteria, root -> root.join("languages").get("name"), true, Integer.MAX_VALUE),
+                repository.countBy(searchCriteria, root -> root.join("keywords").get("name"), true, TOP_FACET_VALUES),
+                repository.countBy(searchCriteria, root -> root.get("publisher"), true, TOP_FACET_VALUES),
+                repository.countBy(searchCriteria, root -> root.get("publishYear"), false, Integer.MAX_VALUE));
+    }
+
+    @Transactional(propagation = REQUIRED, readOnly = true)
+    public Window<BookResponseDto> scrollViews(@NotNull @Valid BookSearchCriteria searchCriteria, Long afterId, int size) {
+        Window<Long> ids = repository.scrollIds(searchCriteria, afterId, size);
+        return Window.from(viewRepository.findAllById(ids.getContent()), ids::positionAt, ids.hasNext());
+    }
+
+    private Page<Long> searchIds(BookSearchCriteria searchCriteria, Pageable pageRequest) {
+        if (isIndexed(searchCriteria, pageRequest)) {
+            return searchIndex(searchCriteria.query(), pageRequest);
+        }
+        return repository.searchIds(searchCriteria, pageRequest);
+    }
+
+    private boolean isIndexed(BookSearchCriteria searchCriteria, Pageable pageRequest) {
+        return searchCriteria.isQueryOnly() && pageRequest.getSort().isUnsorted() && searchIndex.isReady();
     }
 
+    private Page<Long> searchIndex(String query, Pageable pageRequest) {
+        List<Long> ids = searchIndex.search(query);
+        if (pageRequest.isUnpaged()) {
+            return new PageImpl<>(ids, pageRequest, ids.size());
+        }
+        int from = (int) Math.min(pageRequest.getOffset(), ids.size());
+        int to = Math.min(from + pageRequest.getPageSize(), ids.size());
+
+        return new PageImpl<>(List.copyOf(ids.subList(from, to)), pageRequest, ids.size());
+    }
 }
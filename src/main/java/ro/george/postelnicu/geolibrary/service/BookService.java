@@ -1,29 +1,41 @@
 package ro.george.postelnicu.geolibrary.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookDto;
-import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
-import ro.george.postelnicu.geolibrary.dto.language.LanguageDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookPatchDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
 import ro.george.postelnicu.geolibrary.exception.EntityValidationException;
+import ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException;
 import ro.george.postelnicu.geolibrary.mapper.BookMapper;
 import ro.george.postelnicu.geolibrary.model.Author;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookField;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
 import ro.george.postelnicu.geolibrary.model.Keyword;
 import ro.george.postelnicu.geolibrary.model.Language;
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
+import ro.george.postelnicu.geolibrary.repository.BookJdbcRepository;
 import ro.george.postelnicu.geolibrary.repository.BookRepository;
+import ro.george.postelnicu.geolibrary.repository.BookViewRepository;
+import ro.george.postelnicu.geolibrary.repository.NameJdbcRepository;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
 
 import static org.springframework.transaction.annotation.Propagation.REQUIRED;
 import static ro.george.postelnicu.geolibrary.model.EntityName.BOOK;
+import static ro.george.postelnicu.geolibrary.repository.NameJdbcRepository.*;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
 
 @Service
 public class BookService {
@@ -33,38 +45,54 @@ public class BookService {
     private final AuthorService authorService;
     private final KeywordService keywordService;
     private final LanguageService languageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
+    private final NameJdbcRepository nameRepository;
+    private final BookJdbcRepository jdbcRepository;
+    private final BookViewRepository viewRepository;
 
     @Autowired
     public BookService(BookRepository repository, IsbnService isbnService,
                        AuthorService authorService, KeywordService keywordService,
-                       LanguageService languageService) {
+                       LanguageService languageService, ApplicationEventPublisher eventPublisher,
+                       CatalogVersion catalogVersion, NameJdbcRepository nameRepository,
+                       BookJdbcRepository jdbcRepository, BookViewRepository viewRepository) {
         this.repository = repository;
         this.isbnService = isbnService;
         this.authorService = authorService;
         this.keywordService = keywordService;
         this.languageService = languageService;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
+        this.nameRepository = nameRepository;
+        this.jdbcRepository = jdbcRepository;
+        this.viewRepository = viewRepository;
     }
 
     @Transactional(propagation = REQUIRED)
     public Book create(BookDto bookDto) {
         Book book = BookMapper.INSTANCE.toBook(bookDto);
-        if (repository.existsByNameIgnoreCase(book.getName())) {
+        if (repository.existsByNameNorm(normalize(book.getName()))) {
             throw new EntityAlreadyExistException(BOOK, book.getName());
         }
-        if (Objects.nonNull(book.getIsbn()) && repository.existsByIsbnIgnoreCase(book.getIsbn())) {
+        if (Objects.nonNull(book.getIsbn()) && repository.existsByIsbnNorm(normalize(book.getIsbn()))) {
             throw new EntityAlreadyExistException(BOOK, Set.of(book.getName(), book.getIsbn()));
         }
-        if (Objects.nonNull(book.getBarcode()) && repository.existsByBarcodeIgnoreCase(book.getBarcode())) {
+        if (Objects.nonNull(book.getBarcode()) && repository.existsByBarcodeNorm(normalize(book.getBarcode()))) {
             throw new EntityAlreadyExistException(BOOK, Set.of(book.getName(), book.getBarcode()));
         }
         validateNameIsContainedInFullTitle(book.getName(), book.getFullTitle());
         isbnService.isValid(book.getIsbn());
 
+        catalogVersion.markWrite();
         saveAuthors(bookDto.getAuthors(), book);
         saveKeywords(bookDto.getKeywords(), book);
         saveLanguages(bookDto.getLanguages(), book);
+        updateBookCounts(RelationIds.NONE, RelationIds.of(book), Objects.nonNull(book.getPublisher()));
 
-        return repository.save(book);
+        Book saved = repository.save(book);
+        eventPublisher.publishEvent(new BookIndexEvent(Set.of(saved.getId())));
+        return saved;
     }
 
     @Transactional(readOnly = true, propagation = REQUIRED)
@@ -73,48 +101,173 @@ public class BookService {
                 .orElseThrow(() -> new EntityNotFoundException(BOOK, id));
     }
 
+    /**
+     * Reads the book as it is sent to clients, projected by SQL without loading the entity.
+     */
+    public BookResponseDto readView(Long id) {
+        return readView(id, BookField.ALL);
+    }
+
+    /**
+     * Like {@link #readView(Long)}, but only the given fields are read.
+     */
+    public BookResponseDto readView(Long id, Set<BookField> fields) {
+        return viewRepository.findById(id, fields)
+                .orElseThrow(() -> new EntityNotFoundException(BOOK, id));
+    }
+
+    /**
+     * Reads only the version of the book, enough to answer a conditional request.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long readVersion(Long id) {
+        return repository.findVersion(id)
+                .orElseThrow(() -> new EntityNotFoundException(BOOK, id));
+    }
+
     @Transactional(propagation = REQUIRED)
     public Book update(Long id, BookDto updatedDto) {
+        return update(id, updatedDto, version -> true);
+    }
+
+    /**
+     * @param versionCheck tells whether the version the book is at can be overwritten
+     */
+    @Transactional(propagation = REQUIRED)
+    public Book update(Long id, BookDto updatedDto, LongPredicate versionCheck) {
         Book existingBook = read(id);
 
+        checkVersion(id, existingBook.getVersion(), versionCheck);
         if (!existingBook.getName().equalsIgnoreCase(updatedDto.getName()) &&
-                repository.existsByNameIgnoreCase(updatedDto.getName())) {
+                repository.existsByNameNorm(normalize(updatedDto.getName()))) {
             throw new EntityAlreadyExistException(BOOK, updatedDto.getName());
         }
         if (Objects.nonNull(updatedDto.getIsbn()) &&
                 !existingBook.getIsbn().equalsIgnoreCase(updatedDto.getIsbn()) &&
-                repository.existsByIsbnIgnoreCase(updatedDto.getIsbn())) {
+                repository.existsByIsbnNorm(normalize(updatedDto.getIsbn()))) {
             throw new EntityAlreadyExistException(BOOK, Set.of(updatedDto.getName(), updatedDto.getIsbn()));
         }
         if (Objects.nonNull(updatedDto.getBarcode()) &&
                 !existingBook.getBarcode().equalsIgnoreCase(updatedDto.getBarcode()) &&
-                repository.existsByBarcodeIgnoreCase(updatedDto.getBarcode())) {
+                repository.existsByBarcodeNorm(normalize(updatedDto.getBarcode()))) {
             throw new EntityAlreadyExistException(BOOK, Set.of(updatedDto.getName(), updatedDto.getBarcode()));
         }
         validateNameIsContainedInFullTitle(updatedDto.getName(), updatedDto.getFullTitle());
         isbnService.isValid(updatedDto.getIsbn());
+        catalogVersion.markWrite();
+        String previousPublisher = existingBook.getPublisher();
         BookMapper.INSTANCE.updateBookFromDto(updatedDto, existingBook);
 
-        removeAuthors(updatedDto.getAuthors(), existingBook);
-        saveAuthors(updatedDto.getAuthors(), existingBook);
+        RelationIds before = RelationIds.of(existingBook);
+        updateRelations(updatedDto.getAuthors(), existingBook.getAuthors(), Author::getName,
+                existingBook::removeAuthor, authorService::createAllIfNotExisting, existingBook::addAuthor);
+        updateRelations(updatedDto.getKeywords(), existingBook.getKeywords(), Keyword::getName,
+                existingBook::removeKeyword, keywordService::createAllIfNotExisting, existingBook::addKeyword);
+        updateRelations(updatedDto.getLanguages(), existingBook.getLanguages(), Language::getName,
+                existingBook::removeLanguage, languageService::createAllIfNotExisting, existingBook::addLanguage);
+        updateBookCounts(before, RelationIds.of(existingBook),
+                !Objects.equals(previousPublisher, existingBook.getPublisher()));
 
-        removeKeywords(updatedDto.getKeywords(), existingBook);
-        saveKeywords(updatedDto.getKeywords(), existingBook);
+        eventPublisher.publishEvent(new BookIndexEvent(Set.of(id)));
+        return repository.save(existingBook);
+    }
 
-        removeLanguages(updatedDto.getLanguages(), existingBook);
-        saveLanguages(updatedDto.getLanguages(), existingBook);
+    /**
+     * Changes only the fields given, running only the checks those fields are subject to.
+     * The relations are left alone, so they are not loaded.
+     */
+    @Transactional(propagation = REQUIRED)
+    public Book patch(Long id, BookPatchDto patchDto, LongPredicate versionCheck) {
+        Book existingBook = read(id);
 
-        return repository.save(existingBook);
+        checkVersion(id, existingBook.getVersion(), versionCheck);
+        String name = Objects.requireNonNullElse(patchDto.getName(), existingBook.getName());
+        if (Objects.nonNull(patchDto.getName()) &&
+                !existingBook.getName().equalsIgnoreCase(patchDto.getName()) &&
+                repository.existsByNameNorm(normalize(patchDto.getName()))) {
+            throw new EntityAlreadyExistException(BOOK, patchDto.getName());
+        }
+        if (Objects.nonNull(patchDto.getIsbn())) {
+            if (!patchDto.getIsbn().equalsIgnoreCase(existingBook.getIsbn()) &&
+                    repository.existsByIsbnNorm(normalize(patchDto.getIsbn()))) {
+                throw new EntityAlreadyExistException(BOOK, Set.of(name, patchDto.getIsbn()));
+            }
+            isbnService.isValid(patchDto.getIsbn());
+        }
+        if (Objects.nonNull(patchDto.getBarcode()) &&
+                !patchDto.getBarcode().equalsIgnoreCase(existingBook.getBarcode()) &&
+                repository.existsByBarcodeNorm(normalize(patchDto.getBarcode()))) {
+            throw new EntityAlreadyExistException(BOOK, Set.of(name, patchDto.getBarcode()));
+        }
+        if (Objects.nonNull(patchDto.getName()) || Objects.nonNull(patchDto.getFullTitle())) {
+            validateNameIsContainedInFullTitle(name,
+                    Objects.requireNonNullElse(patchDto.getFullTitle(), existingBook.getFullTitle()));
+        }
+
+        catalogVersion.markWrite();
+        if (Objects.nonNull(patchDto.getPublisher()) &&
+                !patchDto.getPublisher().equals(existingBook.getPublisher())) {
+            eventPublisher.publishEvent(new SuggestionEvent(Set.of(SuggestionSource.PUBLISHERS)));
+        }
+        BookMapper.INSTANCE.patchBookFromDto(patchDto, existingBook);
+        eventPublisher.publishEvent(new BookIndexEvent(Set.of(id)));
+        return existingBook;
+    }
+
+    /**
+     * Links the book to the named author, keyword or language, creating it when missing.
+     * Only the join row, the book count and the version of the book are written.
+     *
+     * @return the version the book is at afterwards
+     */
+    @Transactional(propagation = REQUIRED)
+    public long addRelation(Long id, BookRelation relation, String name, LongPredicate versionCheck) {
+        long version = readVersion(id);
+        checkVersion(id, version, versionCheck);
+
+        Long relatedId = switch (relation) {
+            case AUTHORS -> authorService.createAllIfNotExisting(Set.of(name)).get(name).getId();
+            case KEYWORDS -> keywordService.createAllIfNotExisting(Set.of(name)).get(name).getId();
+            case LANGUAGES -> languageService.createAllIfNotExisting(Set.of(name)).get(name).getId();
+        };
+        if (!jdbcRepository.insertRelation(relation, id, relatedId)) {
+            return version;
+        }
+        nameRepository.addToBookCounts(relation.getTable(), Map.of(relatedId, 1));
+        eventPublisher.publishEvent(new SuggestionEvent(Set.of(SuggestionSource.of(relation))));
+        return incrementVersion(id, version);
+    }
+
+    /**
+     * Unlinks the book from the named author, keyword or language, if it is linked to it at all.
+     *
+     * @return the version the book is at afterwards
+     */
+    @Transactional(propagation = REQUIRED)
+    public long removeRelation(Long id, BookRelation relation, String name, LongPredicate versionCheck) {
+        long version = readVersion(id);
+        checkVersion(id, version, versionCheck);
+
+        Optional<Long> relatedId = nameRepository.findId(relation.getTable(), name);
+        if (relatedId.isEmpty() || !jdbcRepository.deleteRelation(relation, id, relatedId.get())) {
+            return version;
+        }
+        nameRepository.addToBookCounts(relation.getTable(), Map.of(relatedId.get(), -1));
+        eventPublisher.publishEvent(new SuggestionEvent(Set.of(SuggestionSource.of(relation))));
+        return incrementVersion(id, version);
     }
 
     @Transactional(propagation = REQUIRED)
     public void delete(Long id) {
         Book book = read(id);
 
+        catalogVersion.markWrite();
+        updateBookCounts(RelationIds.of(book), RelationIds.NONE, Objects.nonNull(book.getPublisher()));
         removeAllAuthors(book);
         removeAllKeywords(book);
         removeAllLanguages(book);
         repository.delete(book);
+        eventPublisher.publishEvent(new BookIndexEvent(Set.of(id)));
     }
 
     private void removeAllAuthors(Book book) {
@@ -124,23 +277,6 @@ public class BookService {
         }
     }
 
-    private void removeAuthors(Set<String> authors, Book book) {
-        if (authors == null || authors.isEmpty()) {
-            return;
-        }
-        // Create a temporary list to hold authors to be removed
-        List<Author> removeList = new ArrayList<>();
-        for (Author author : book.getAuthors()) {
-            if (!authors.contains(author.getName())) {
-                removeList.add(author);
-            }
-        }
-        // Remove authors after the iteration
-        for (Author author : removeList) {
-            book.removeAuthor(author);
-        }
-    }
-
     private void removeAllKeywords(Book book) {
         List<Keyword> removeList = new ArrayList<>(book.getKeywords());
         for (Keyword keyword : removeList) {
@@ -148,23 +284,6 @@ public class BookService {
         }
     }
 
-    private void removeKeywords(Set<String> keywords, Book book) {
-        if (keywords == null || keywords.isEmpty()) {
-            return;
-        }
-        // Create a temporary list to hold keywords to be removed
-        List<Keyword> removeList = new ArrayList<>();
-        for (Keyword keyword : book.getKeywords()) {
-            if (!keywords.contains(keyword.getName())) {
-                removeList.add(keyword);
-            }
-        }
-        // Remove keywords after the iteration
-        for (Keyword keyword : removeList) {
-            book.removeKeyword(keyword);
-        }
-    }
-
     private void removeAllLanguages(Book book) {
         List<Language> removeList = new ArrayList<>(book.getLanguages());
         for (Language language : removeList) {
@@ -172,57 +291,125 @@ public class BookService {
         }
     }
 
-    private void removeLanguages(Set<String> languages, Book book) {
-        if (languages == null || languages.isEmpty()) {
-            return;
-        }
-        // Create a temporary list to hold languages to be removed
-        List<Language> removeList = new ArrayList<>();
-        for (Language language : book.getLanguages()) {
-            if (!languages.contains(language.getName())) {
-                removeList.add(language);
-            }
-        }
-        // Remove languages after the iteration
-        for (Language language : removeList) {
-            book.removeLanguage(language);
-        }
-    }
-
     private void saveAuthors(Set<String> authors, Book book) {
         if (authors == null || authors.isEmpty()) {
             return;
         }
-        authors.stream()
-                .map(AuthorDto::new)
-                .map(authorService::createIfNotExisting)
-                .forEach(book::addAuthor);
+        authorService.createAllIfNotExisting(authors).values().forEach(book::addAuthor);
     }
 
     private void saveKeywords(Set<String> keywords, Book book) {
         if (keywords == null || keywords.isEmpty()) {
             return;
         }
-        keywords.stream()
-                .map(KeywordDto::new)
-                .map(keywordService::createIfNotExisting)
-                .forEach(book::addKeyword);
+        keywordService.createAllIfNotExisting(keywords).values().forEach(book::addKeyword);
     }
 
     private void saveLanguages(Set<String> languages, Book book) {
         if (languages == null || languages.isEmpty()) {
             return;
         }
-        languages.stream()
-                .map(LanguageDto::new)
-                .map(languageService::createIfNotExisting)
-                .forEach(book::addLanguage);
+        languageService.createAllIfNotExisting(languages).values().forEach(book::addLanguage);
     }
 
-    private void validateNameIsContainedInFullTitle(String name, String fullTitle) {
+    /**
+     * Applies only the difference between the requested names and the current relations: relations whose name is
+     * still requested are left alone, and only the new names are resolved. A null or empty set keeps the relations.
+     */
+    private static <T> void updateRelations(Set<String> names, Set<T> current, Function<T, String> nameOf,
+                                            Consumer<T> remove, Function<Set<String>, Map<String, T>> resolver,
+                                            Consumer<T> add) {
+        if (names == null || names.isEmpty()) {
+            return;
+        }
+        Set<String> requested = normalize(names);
+        List<T> removed = current.stream()
+                .filter(relation -> !requested.contains(normalize(nameOf.apply(relation))))
+                .toList();
+        removed.forEach(remove);
+
+        Set<String> kept = current.stream()
+                .map(relation -> normalize(nameOf.apply(relation)))
+                .collect(Collectors.toSet());
+        Set<String> added = names.stream()
+                .filter(name -> !kept.contains(normalize(name)))
+                .collect(Collectors.toSet());
+        if (!added.isEmpty()) {
+            resolver.apply(added).values().stream().distinct().forEach(add);
+        }
+    }
+
+    /**
+     * Moves the book counts of the relations the write added or removed, and has the suggestions whose names or
+     * counts changed reloaded once the write commits.
+     */
+    private void updateBookCounts(RelationIds before, RelationIds after, boolean publisherChanged) {
+        Set<SuggestionSource> changed = EnumSet.noneOf(SuggestionSource.class);
+        updateBookCounts(AUTHOR_TABLE, deltas(before.authors(), after.authors()), SuggestionSource.AUTHORS, changed);
+        updateBookCounts(KEYWORD_TABLE, deltas(before.keywords(), after.keywords()), SuggestionSource.KEYWORDS,
+                changed);
+        updateBookCounts(LANGUAGE_TABLE, deltas(before.languages(), after.languages()), SuggestionSource.LANGUAGES,
+                changed);
+        if (publisherChanged) {
+            changed.add(SuggestionSource.PUBLISHERS);
+        }
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new SuggestionEvent(changed));
+        }
+    }
+
+    private void updateBookCounts(String table, Map<Long, Integer> deltas, SuggestionSource source,
+                                  Set<SuggestionSource> changed) {
+        if (!deltas.isEmpty()) {
+            nameRepository.addToBookCounts(table, deltas);
+            changed.add(source);
+        }
+    }
+
+    private static Map<Long, Integer> deltas(Set<Long> before, Set<Long> after) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        after.stream().filter(id -> !before.contains(id)).forEach(id -> deltas.put(id, 1));
+        before.stream().filter(id -> !after.contains(id)).forEach(id -> deltas.put(id, -1));
+        return deltas;
+    }
+
+    private static void checkVersion(Long id, long version, LongPredicate versionCheck) {
+        if (!versionCheck.test(version)) {
+            throw new EntityVersionMismatchException(BOOK, id, ETagUtil.of(version));
+        }
+    }
+
+    /**
+     * Moves the book past the version its relation edit was checked against, failing if another write got there first.
+     */
+    private long incrementVersion(Long id, long version) {
+        if (!jdbcRepository.incrementVersion(id, version)) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+        }
+        catalogVersion.markWrite();
+        eventPublisher.publishEvent(new BookIndexEvent(Set.of(id)));
+        return version + 1;
+    }
+
+    void validateNameIsContainedInFullTitle(String name, String fullTitle) {
         if (fullTitle != null && !fullTitle.toLowerCase().contains(name.toLowerCase())) {
             throw new EntityValidationException(BOOK, NAME_IS_NOT_INCLUDED_IN_FULL_TITLE);
         }
     }
 
+    /**
+     * The ids a book is linked to, compared before and after a write to move the book counts of its relations.
+     */
+    private record RelationIds(Set<Long> authors, Set<Long> keywords, Set<Long> languages) {
+        static final RelationIds NONE = new RelationIds(Set.of(), Set.of(), Set.of());
+
+        static RelationIds of(Book book) {
+            return new RelationIds(ids(book.getAuthors(), Author::getId), ids(book.getKeywords(), Keyword::getId),
+                    ids(book.getLanguages(), Language::getId));
+        }
+
+        private static <T> Set<Long> ids(Set<T> relations, Function<T, Long> id) {
+            return relations.stream().map(id).collect(Collectors.toSet());
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter of the writes made to the catalog, used to tell whether something read earlier may be outdated.
+ * A value is current when it was read at the same version and no write transaction is in flight.
+ */
+@Service
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+
+    public long current() {
+        return version.get();
+    }
+
+    public boolean isCurrent(long seenVersion) {
+        return writesInFlight.get() == 0 && version.get() == seenVersion;
+    }
+
+    /**
+     * To be called by every write. Inside a transaction the write counts as in flight until the transaction
+     * completes, and the version moves once per transaction, after it has completed.
+     */
+    public void markWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        writesInFlight.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogVersion.this);
+                // the version moves first, so a reader never sees no write in flight at the old version
+                version.incrementAndGet();
+                writesInFlight.decrementAndGet();
+            }
+        });
+    }
+}
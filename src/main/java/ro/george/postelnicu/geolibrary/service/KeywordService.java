@@ -1,6 +1,8 @@
 package ro.george.postelnicu.geolibrary.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
@@ -8,68 +10,192 @@ import ro.george.postelnicu.geolibrary.dto.keyword.KeywordsDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyLinkedException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
+import ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException;
 import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Keyword;
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
+import ro.george.postelnicu.geolibrary.repository.BookJdbcRepository;
 import ro.george.postelnicu.geolibrary.repository.KeywordRepository;
+import ro.george.postelnicu.geolibrary.repository.NameJdbcRepository;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 import ro.george.postelnicu.geolibrary.util.StringUtil;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 import static org.springframework.transaction.annotation.Propagation.REQUIRED;
 import static ro.george.postelnicu.geolibrary.model.EntityName.KEYWORD;
+import static ro.george.postelnicu.geolibrary.repository.NameJdbcRepository.KEYWORD_TABLE;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
 import static ro.george.postelnicu.geolibrary.util.StringUtil.splitCapitalizeAndJoin;
 
 @Service
 public class KeywordService {
+    private static final int BULK_CHUNK_SIZE = 1000;
     private final KeywordRepository repository;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final NameJdbcRepository nameRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
 
     @Autowired
-    public KeywordService(KeywordRepository repository) {
+    public KeywordService(KeywordRepository repository, BookJdbcRepository bookJdbcRepository,
+                       NameJdbcRepository nameRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       CatalogVersion catalogVersion) {
         this.repository = repository;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.nameRepository = nameRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
     }
 
+    /**
+     * Creates the names which do not exist yet, checking and inserting them a chunk at a time.
+     *
+     * @return every distinct name of the request, with its id and whether it was created now
+     */
     @Transactional
-    public List<Keyword> createBulk(KeywordsDto keywordsDto) {
-        return keywordsDto.getKeywords().stream()
+    public List<BulkItem> createBulk(KeywordsDto request) {
+        List<String> names = request.getKeywords().stream()
                 .map(StringUtil::splitCapitalizeAndJoin)
-                .map(KeywordDto::new)
-                .map(this::create)
-                .collect(Collectors.toList());
+                .distinct()
+                .toList();
+
+        List<BulkItem> items = new ArrayList<>(names.size());
+        for (int from = 0; from < names.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + BULK_CHUNK_SIZE, names.size()));
+            Set<String> created = new HashSet<>();
+            Map<String, Keyword> keywords = createAllIfNotExisting(chunk, created);
+            chunk.forEach(name -> items.add(
+                    new BulkItem(name, keywords.get(name).getId(), created.contains(normalize(name)))));
+        }
+        return items;
     }
 
     @Transactional
     public Keyword create(KeywordDto keywordDto) {
         Keyword keyword = LibraryMapper.INSTANCE.toKeyword(keywordDto);
 
-        if (repository.existsByNameIgnoreCase(keywordDto.getName())) {
+        if (repository.existsByNameNorm(normalize(keywordDto.getName()))) {
             throw new EntityAlreadyExistException(KEYWORD, splitCapitalizeAndJoin(keywordDto.getName()));
         }
 
+        markWrite();
         return repository.save(keyword);
     }
 
     @Transactional
     public Keyword createIfNotExisting(KeywordDto keywordDto) {
-        return repository.findByNameIgnoreCase(keywordDto.getName())
+        return repository.findByNameNorm(normalize(keywordDto.getName()))
                 .orElseGet(() -> create(keywordDto));
     }
 
+    /**
+     * Looks all the names up in one query and inserts the missing ones in one statement.
+     *
+     * @return the keyword of every given name
+     */
+    @Transactional
+    public Map<String, Keyword> createAllIfNotExisting(Collection<String> names) {
+        return createAllIfNotExisting(names, new HashSet<>());
+    }
+
+    /**
+     * @param created receives the normalized names inserted by this call
+     */
+    private Map<String, Keyword> createAllIfNotExisting(Collection<String> names, Set<String> created) {
+        Map<String, Keyword> keywords = repository.findByNameNormIn(normalize(names)).stream()
+                .collect(Collectors.toMap(keyword -> normalize(keyword.getName()), Function.identity()));
+
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String name : names) {
+            if (!keywords.containsKey(normalize(name))) {
+                missing.putIfAbsent(normalize(name), LibraryMapper.INSTANCE.toKeyword(new KeywordDto(name)).getName());
+            }
+        }
+        if (!missing.isEmpty()) {
+            markWrite();
+            nameRepository.insertAll(KEYWORD_TABLE, missing.values());
+            created.addAll(missing.keySet());
+            repository.findByNameNormIn(missing.keySet())
+                    .forEach(keyword -> keywords.put(normalize(keyword.getName()), keyword));
+        }
+
+        return names.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), name -> keywords.get(normalize(name))));
+    }
+
     @Transactional(readOnly = true, propagation = REQUIRED)
     public Keyword read(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(KEYWORD, id));
     }
 
+    /**
+     * Reads only the version of the keyword, enough to answer a conditional request.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long readVersion(Long id) {
+        return repository.findVersion(id)
+                .orElseThrow(() -> new EntityNotFoundException(KEYWORD, id));
+    }
+
+    /**
+     * Reads the counter kept on the keyword, so it costs the same however many books use it.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long countBooks(Long id) {
+        return repository.findBookCount(id)
+                .orElseThrow(() -> new EntityNotFoundException(KEYWORD, id));
+    }
+
+    /**
+     * Reads the keywords in name order, after the normalized name of the last one seen, with one query on the name
+     * index.
+     *
+     * @param after null for the first page
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public List<Keyword> list(String prefix, String after, int limit) {
+        String key = normalize(prefix.trim());
+        String from = Objects.toString(after, "");
+        return key.isEmpty()
+                ? repository.findByNameNormGreaterThanOrderByNameNorm(from, Limit.of(limit))
+                : repository.findByNameNormStartingWithAndNameNormGreaterThanOrderByNameNorm(key, from, Limit.of(limit));
+    }
+
     @Transactional
     public Keyword update(Long id, KeywordDto keywordDto) {
+        return update(id, keywordDto, version -> true);
+    }
+
+    /**
+     * @param versionCheck tells whether the version the keyword is at can be overwritten
+     */
+    @Transactional
+    public Keyword update(Long id, KeywordDto keywordDto, LongPredicate versionCheck) {
         Keyword keyword = read(id);
 
-        if (repository.existsByNameIgnoreCaseAndIdIsNot(keywordDto.getName(), id)) {
+        if (!versionCheck.test(keyword.getVersion())) {
+            throw new EntityVersionMismatchException(KEYWORD, id, ETagUtil.of(keyword.getVersion()));
+        }
+        if (repository.existsByNameNormAndIdIsNot(normalize(keywordDto.getName()), id)) {
             throw new EntityAlreadyExistException(KEYWORD, splitCapitalizeAndJoin(keywordDto.getName()));
         }
 
+        markWrite();
+        String previousName = keyword.getName();
         LibraryMapper.INSTANCE.updateKeywordFromDto(keywordDto, keyword);
+        Set<Long> bookIds = repository.findBookIds(id);
+        if (!previousName.equals(keyword.getName())) {
+            bookJdbcRepository.incrementVersions(bookIds);
+        }
+        eventPublisher.publishEvent(new BookIndexEvent(bookIds));
 
         return repository.save(keyword);
     }
@@ -78,10 +204,19 @@ public class KeywordService {
     public void delete(Long id) {
         Keyword keyword = read(id);
 
-        if (keyword.getBooks().isEmpty()) {
+        if (countBooks(id) == 0) {
+            markWrite();
             repository.delete(keyword);
         } else {
             throw new EntityAlreadyLinkedException(KEYWORD, keyword.getName());
         }
     }
+
+    /**
+     * Marks the catalog as written and has the keywords suggested while typing reloaded once the write commits.
+     */
+    private void markWrite() {
+        catalogVersion.markWrite();
+        eventPublisher.publishEvent(new SuggestionEvent(Set.of(SuggestionSource.KEYWORDS)));
+    }
 }
@@ -1,6 +1,8 @@
 package ro.george.postelnicu.geolibrary.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageDto;
@@ -8,82 +10,213 @@ import ro.george.postelnicu.geolibrary.dto.language.LanguagesDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyLinkedException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
+import ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException;
 import ro.george.postelnicu.geolibrary.mapper.LibraryMapper;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Language;
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
+import ro.george.postelnicu.geolibrary.repository.BookJdbcRepository;
 import ro.george.postelnicu.geolibrary.repository.LanguageRepository;
+import ro.george.postelnicu.geolibrary.repository.NameJdbcRepository;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 import ro.george.postelnicu.geolibrary.util.StringUtil;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 import static org.springframework.transaction.annotation.Propagation.REQUIRED;
 import static ro.george.postelnicu.geolibrary.model.EntityName.LANGUAGE;
+import static ro.george.postelnicu.geolibrary.repository.NameJdbcRepository.LANGUAGE_TABLE;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
 import static ro.george.postelnicu.geolibrary.util.StringUtil.splitCapitalizeAndJoin;
 
 @Service
 public class LanguageService {
+    private static final int BULK_CHUNK_SIZE = 1000;
     private final LanguageRepository repository;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final NameJdbcRepository nameRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersion catalogVersion;
 
     @Autowired
-    public LanguageService(LanguageRepository repository) {
+    public LanguageService(LanguageRepository repository, BookJdbcRepository bookJdbcRepository,
+                       NameJdbcRepository nameRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       CatalogVersion catalogVersion) {
         this.repository = repository;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.nameRepository = nameRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
     }
 
+    /**
+     * Creates the names which do not exist yet, checking and inserting them a chunk at a time.
+     *
+     * @return every distinct name of the request, with its id and whether it was created now
+     */
     @Transactional
-    public List<Language> createBulk(LanguagesDto request) {
-        return request.getLanguages().stream()
+    public List<BulkItem> createBulk(LanguagesDto request) {
+        List<String> names = request.getLanguages().stream()
                 .map(StringUtil::splitCapitalizeAndJoin)
-                .map(LanguageDto::new)
-                .map(this::create)
-                .collect(Collectors.toList());
+                .distinct()
+                .toList();
+
+        List<BulkItem> items = new ArrayList<>(names.size());
+        for (int from = 0; from < names.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + BULK_CHUNK_SIZE, names.size()));
+            Set<String> created = new HashSet<>();
+            Map<String, Language> languages = createAllIfNotExisting(chunk, created);
+            chunk.forEach(name -> items.add(
+                    new BulkItem(name, languages.get(name).getId(), created.contains(normalize(name)))));
+        }
+        return items;
     }
 
     @Transactional
     public Language create(LanguageDto languageDto) {
         Language language = LibraryMapper.INSTANCE.toLanguage(languageDto);
 
-        if (repository.existsByNameIgnoreCase(languageDto.getName())) {
+        if (repository.existsByNameNorm(normalize(languageDto.getName()))) {
             throw new EntityAlreadyExistException(LANGUAGE, splitCapitalizeAndJoin(languageDto.getName()));
         }
 
+        markWrite();
         return repository.save(language);
     }
 
     @Transactional
     public Language createIfNotExisting(LanguageDto languageDto) {
-        return repository.findByNameIgnoreCase(languageDto.getName())
+        return repository.findByNameNorm(normalize(languageDto.getName()))
                 .orElseGet(() -> create(languageDto));
     }
 
+    /**
+     * Looks all the names up in one query and inserts the missing ones in one statement.
+     *
+     * @return the language of every given name
+     */
+    @Transactional
+    public Map<String, Language> createAllIfNotExisting(Collection<String> names) {
+        return createAllIfNotExisting(names, new HashSet<>());
+    }
+
+    /**
+     * @param created receives the normalized names inserted by this call
+     */
+    private Map<String, Language> createAllIfNotExisting(Collection<String> names, Set<String> created) {
+        Map<String, Language> languages = repository.findByNameNormIn(normalize(names)).stream()
+                .collect(Collectors.toMap(language -> normalize(language.getName()), Function.identity()));
+
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String name : names) {
+            if (!languages.containsKey(normalize(name))) {
+                missing.putIfAbsent(normalize(name), LibraryMapper.INSTANCE.toLanguage(new LanguageDto(name)).getName());
+            }
+        }
+        if (!missing.isEmpty()) {
+            markWrite();
+            nameRepository.insertAll(LANGUAGE_TABLE, missing.values());
+            created.addAll(missing.keySet());
+            repository.findByNameNormIn(missing.keySet())
+                    .forEach(language -> languages.put(normalize(language.getName()), language));
+        }
+
+        return names.stream()
+                .distinct()
+                .collect(Collectors.toMap(Function.identity(), name -> languages.get(normalize(name))));
+    }
+
     @Transactional(readOnly = true, propagation = REQUIRED)
     public Language read(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(LANGUAGE, id));
     }
 
+    /**
+     * Reads only the version of the language, enough to answer a conditional request.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long readVersion(Long id) {
+        return repository.findVersion(id)
+                .orElseThrow(() -> new EntityNotFoundException(LANGUAGE, id));
+    }
+
+    /**
+     * Reads the counter kept on the language, so it costs the same however many books use it.
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public long countBooks(Long id) {
+        return repository.findBookCount(id)
+                .orElseThrow(() -> new EntityNotFoundException(LANGUAGE, id));
+    }
+
+    /**
+     * Reads the languages in name order, after the normalized name of the last one seen, with one query on the name
+     * index.
+     *
+     * @param after null for the first page
+     */
+    @Transactional(readOnly = true, propagation = REQUIRED)
+    public List<Language> list(String prefix, String after, int limit) {
+        String key = normalize(prefix.trim());
+        String from = Objects.toString(after, "");
+        return key.isEmpty()
+                ? repository.findByNameNormGreaterThanOrderByNameNorm(from, Limit.of(limit))
+                : repository.findByNameNormStartingWithAndNameNormGreaterThanOrderByNameNorm(key, from, Limit.of(limit));
+    }
+
     @Transactional
     public Language update(Long id, LanguageDto languageDto) {
-        Language language = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(LANGUAGE, id));
+        return update(id, languageDto, version -> true);
+    }
 
-        if (repository.existsByNameIgnoreCaseAndIdIsNot(languageDto.getName(), id)) {
+    /**
+     * @param versionCheck tells whether the version the language is at can be overwritten
+     */
+    @Transactional
+    public Language update(Long id, LanguageDto languageDto, LongPredicate versionCheck) {
+        Language language = read(id);
+
+        if (!versionCheck.test(language.getVersion())) {
+            throw new EntityVersionMismatchException(LANGUAGE, id, ETagUtil.of(language.getVersion()));
+        }
+        if (repository.existsByNameNormAndIdIsNot(normalize(languageDto.getName()), id)) {
             throw new EntityAlreadyExistException(LANGUAGE, splitCapitalizeAndJoin(languageDto.getName()));
         }
 
+        markWrite();
+        String previousName = language.getName();
         LibraryMapper.INSTANCE.updateLanguageFromDto(languageDto, language);
+        Set<Long> bookIds = repository.findBookIds(id);
+        if (!previousName.equals(language.getName())) {
+            bookJdbcRepository.incrementVersions(bookIds);
+        }
+        eventPublisher.publishEvent(new BookIndexEvent(bookIds));
 
         return repository.save(language);
     }
 
     @Transactional
     public void delete(Long id) {
-        Language language = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(LANGUAGE, id));
+        Language language = read(id);
 
-        if (language.getBooks().isEmpty()) {
+        if (countBooks(id) == 0) {
+            markWrite();
             repository.delete(language);
         } else {
             throw new EntityAlreadyLinkedException(LANGUAGE, language.getName());
         }
     }
+
+    /**
+     * Marks the catalog as written and has the languages suggested while typing reloaded once the write commits.
+     */
+    private void markWrite() {
+        catalogVersion.markWrite();
+        eventPublisher.publishEvent(new SuggestionEvent(Set.of(SuggestionSource.LANGUAGES)));
+    }
 }
@@ -0,0 +1,12 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
+
+import java.util.Set;
+
+/**
+ * Published inside a write that changes the names, or the book counts of the names, of these sources;
+ * the {@link SuggestionService} reloads only them once the write commits.
+ */
+public record SuggestionEvent(Set<SuggestionSource> sources) {
+}
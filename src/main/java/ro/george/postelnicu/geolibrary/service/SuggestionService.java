@@ -0,0 +1,160 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
+import ro.george.postelnicu.geolibrary.model.SuggestionSource;
+import ro.george.postelnicu.geolibrary.repository.AuthorRepository;
+import ro.george.postelnicu.geolibrary.repository.BookRepository;
+import ro.george.postelnicu.geolibrary.repository.KeywordRepository;
+import ro.george.postelnicu.geolibrary.repository.LanguageRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static org.springframework.transaction.event.TransactionPhase.AFTER_COMMIT;
+import static ro.george.postelnicu.geolibrary.model.SuggestionSource.*;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.normalize;
+
+/**
+ * Type-ahead on author, keyword, language and publisher names, answered from sorted in-memory arrays.
+ * Each source is reloaded, with one aggregate query, on its first request after a {@link SuggestionEvent} naming it
+ * committed; requests arriving during the reload keep being answered from the previous array.
+ */
+@Service
+public class SuggestionService {
+    public static final int MAX_SUGGESTIONS = 50;
+    private static final Comparator<Suggestion> BY_RANK = Comparator.comparingLong(Suggestion::bookCount).reversed()
+            .thenComparing(Suggestion::name);
+
+    private final Map<SuggestionSource, Names> names = new EnumMap<>(SuggestionSource.class);
+
+    @Autowired
+    public SuggestionService(AuthorRepository authorRepository, KeywordRepository keywordRepository,
+                             LanguageRepository languageRepository, BookRepository bookRepository) {
+        names.put(AUTHORS, new Names(authorRepository::findNamesWithBookCount));
+        names.put(KEYWORDS, new Names(keywordRepository::findNamesWithBookCount));
+        names.put(LANGUAGES, new Names(languageRepository::findNamesWithBookCount));
+        names.put(PUBLISHERS, new Names(bookRepository::findPublishersWithBookCount));
+    }
+
+    public List<Suggestion> suggestAuthors(String prefix, int limit) {
+        return names.get(AUTHORS).sorted().suggest(prefix, limit);
+    }
+
+    public List<Suggestion> suggestKeywords(String prefix, int limit) {
+        return names.get(KEYWORDS).sorted().suggest(prefix, limit);
+    }
+
+    public List<Suggestion> suggestLanguages(String prefix, int limit) {
+        return names.get(LANGUAGES).sorted().suggest(prefix, limit);
+    }
+
+    public List<Suggestion> suggestPublishers(String prefix, int limit) {
+        return names.get(PUBLISHERS).sorted().suggest(prefix, limit);
+    }
+
+    @TransactionalEventListener(phase = AFTER_COMMIT)
+    public void onSuggestionEvent(SuggestionEvent event) {
+        event.sources().forEach(source -> names.get(source).version.incrementAndGet());
+    }
+
+    /**
+     * The names of one source, with the number of committed writes to them, so a reload is only paid for
+     * by the source that changed.
+     */
+    private static final class Names {
+        private final Supplier<List<Suggestion>> loader;
+        private final AtomicLong version = new AtomicLong();
+        private final ReentrantLock reloadLock = new ReentrantLock();
+        private volatile SortedNames sorted;
+
+        private Names(Supplier<List<Suggestion>> loader) {
+            this.loader = loader;
+        }
+
+        private SortedNames sorted() {
+            SortedNames current = sorted;
+            if (!isNull(current) && current.version == version.get()) {
+                return current;
+            }
+            if (isNull(current)) {
+                reloadLock.lock();
+            } else if (!reloadLock.tryLock()) {
+                return current;
+            }
+
+            try {
+                SortedNames latest = sorted;
+                // read before loading, so a write committed during the load causes another one
+                long loadedVersion = version.get();
+                if (isNull(latest) || latest.version != loadedVersion) {
+                    latest = new SortedNames(loadedVersion, loader.get());
+                    sorted = latest;
+                }
+                return latest;
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Names sorted by their normalized form, so the names sharing a prefix are one contiguous range,
+     * found with two binary searches.
+     */
+    private static final class SortedNames {
+        private final long version;
+        private final String[] keys;
+        private final Suggestion[] suggestions;
+        private final List<Suggestion> top;
+
+        private SortedNames(long version, List<Suggestion> names) {
+            List<Suggestion> sorted = new ArrayList<>(names);
+            sorted.sort(Comparator.comparing(suggestion -> normalize(suggestion.name())));
+            this.version = version;
+            this.keys = sorted.stream().map(suggestion -> normalize(suggestion.name())).toArray(String[]::new);
+            this.suggestions = sorted.toArray(Suggestion[]::new);
+            // every name matches an empty prefix, so its answer is ranked once per load
+            this.top = names.stream().sorted(BY_RANK).limit(MAX_SUGGESTIONS).toList();
+        }
+
+        private List<Suggestion> suggest(String prefix, int limit) {
+            String key = isNull(prefix) ? "" : normalize(prefix.trim());
+            int size = Math.max(0, Math.min(limit, MAX_SUGGESTIONS));
+            if (key.isEmpty()) {
+                return top.subList(0, Math.min(size, top.size()));
+            }
+            int from = lowerBound(key);
+            int to = lowerBound(key + Character.MAX_VALUE);
+
+            // keeps the best `size` suggestions of the range, the worst one on top
+            PriorityQueue<Suggestion> best = new PriorityQueue<>(BY_RANK.reversed());
+            for (int i = from; i < to && size > 0; i++) {
+                best.offer(suggestions[i]);
+                if (best.size() > size) {
+                    best.poll();
+                }
+            }
+            List<Suggestion> result = new ArrayList<>(best);
+            result.sort(BY_RANK);
+            return result;
+        }
+
+        private int lowerBound(String key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return -index - 1;
+            }
+            // equal keys are possible, e.g. publishers written with a different case
+            while (index > 0 && keys[index - 1].equals(key)) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ro.george.postelnicu.geolibrary.specification;
 
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
+import ro.george.postelnicu.geolibrary.model.MatchMode;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -9,14 +10,22 @@ import java.util.Set;
 import java.util.function.Function;
 
 import static java.util.Objects.isNull;
+import static ro.george.postelnicu.geolibrary.model.MatchMode.ANY;
 
+/**
+ * Filters on the names of a relation through a correlated subquery, so the join table is only probed by its
+ * primary key and the rows of the searched entity are never multiplied.
+ */
 public class CollectionFieldSpecification<T> implements Specification<T> {
 
     private final Collection<String> names;
+    private final MatchMode matchMode;
     private final Function<Root<T>, Expression<String>> fieldExpressionProvider;
 
-    public CollectionFieldSpecification(Collection<String> names, Function<Root<T>, Expression<String>> fieldExpressionProvider) {
+    public CollectionFieldSpecification(Collection<String> names, MatchMode matchMode,
+                                        Function<Root<T>, Expression<String>> fieldExpressionProvider) {
         this.names = names;
+        this.matchMode = matchMode;
         this.fieldExpressionProvider = fieldExpressionProvider;
     }
 
@@ -26,18 +35,24 @@ public class CollectionFieldSpecification<T> implements Specification<T> {
             return criteriaBuilder.conjunction();
         }
 
-        // Create a separate predicate for each author
-        Set<Predicate> predicates = new HashSet<>();
-        for (String authorName : names) {
-            predicates.add(criteriaBuilder.equal(fieldExpressionProvider.apply(root), authorName));
+        Set<String> distinctNames = new HashSet<>(names);
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Expression<String> field = fieldExpressionProvider.apply(subquery.correlate(root));
+        subquery.where(field.in(distinctNames));
+
+        if (matchMode == ANY || distinctNames.size() == 1) {
+            subquery.select(criteriaBuilder.literal(1L));
+            return criteriaBuilder.exists(subquery);
         }
 
-        // Combine all predicates using 'AND'
-        return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        // names are unique, so matching all of them means matching as many distinct names as were asked for
+        subquery.select(criteriaBuilder.countDistinct(field));
+        return criteriaBuilder.equal(subquery, (long) distinctNames.size());
     }
 
     public static <T> CollectionFieldSpecification<T> buildCollectionsSpecification(Collection<String> names,
-                                                                         Function<Root<T>, Expression<String>> fieldExpressionProvider) {
-        return new CollectionFieldSpecification<>(names, fieldExpressionProvider);
+                                                                                    MatchMode matchMode,
+                                                                                    Function<Root<T>, Expression<String>> fieldExpressionProvider) {
+        return new CollectionFieldSpecification<>(names, matchMode, fieldExpressionProvider);
     }
 }
@@ -0,0 +1,25 @@
+package ro.george.postelnicu.geolibrary.specification;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@value #MATCH_AGAINST}(column1, column2, column3, query) as MySQL's
+ * {@code MATCH(...) AGAINST(... IN BOOLEAN MODE)} relevance score. The function is only
+ * registered for MySQL, other databases fall back to {@link FullTextSpecification}'s LIKE predicates.
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+    public static final String MATCH_AGAINST = "match_against";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (functionContributions.getDialect() instanceof MySQLDialect) {
+            functionContributions.getFunctionRegistry().registerPattern(MATCH_AGAINST,
+                    "match(?1, ?2, ?3) against(?4 in boolean mode)",
+                    functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                            .resolve(StandardBasicTypes.DOUBLE));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ro.george.postelnicu.geolibrary.specification;
+
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static ro.george.postelnicu.geolibrary.specification.FullTextFunctionContributor.MATCH_AGAINST;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.*;
+
+public class FullTextSpecification<T> implements Specification<T> {
+
+    private final List<String> tokens;
+    private final boolean nativeFullText;
+    private final String[] fieldNames;
+
+    private FullTextSpecification(String query, boolean nativeFullText, String... fieldNames) {
+        this.tokens = tokenize(query);
+        this.nativeFullText = nativeFullText;
+        this.fieldNames = fieldNames;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (tokens.isEmpty()) {
+            return cb.conjunction();
+        }
+
+        if (nativeFullText) {
+            Expression<Double> score = cb.function(MATCH_AGAINST, Double.class,
+                    root.get(fieldNames[0]), root.get(fieldNames[1]), root.get(fieldNames[2]),
+                    cb.literal(toBooleanModeQuery(tokens)));
+            // Count queries reset the ordering, so only result queries end up ranked by relevance
+            query.orderBy(cb.desc(score));
+            return cb.greaterThan(score, 0.0);
+        }
+
+        // Every token has to prefix a word in at least one of the fields
+        List<Predicate> predicates = new ArrayList<>();
+        for (String token : tokens) {
+            List<Predicate> fieldPredicates = new ArrayList<>();
+            for (String fieldName : fieldNames) {
+                Expression<String> field = cb.lower(root.get(fieldName));
+                fieldPredicates.add(cb.like(field, token + LIKE));
+                fieldPredicates.add(cb.like(field, LIKE + SPACE + token + LIKE));
+            }
+            predicates.add(cb.or(fieldPredicates.toArray(new Predicate[0])));
+        }
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    public static <T> FullTextSpecification<T> buildFullTextSpecification(String query, boolean nativeFullText,
+                                                                          String... fieldNames) {
+        return new FullTextSpecification<>(query, nativeFullText, fieldNames);
+    }
+
+    /**
+     * Every token is required and matched as a prefix. The tokens hold only letters and digits, so no boolean mode
+     * operator typed by the user reaches AGAINST.
+     */
+    static String toBooleanModeQuery(List<String> tokens) {
+        return tokens.stream()
+                .map(token -> "+" + token + WILDCARD)
+                .collect(Collectors.joining(SPACE));
+    }
+}
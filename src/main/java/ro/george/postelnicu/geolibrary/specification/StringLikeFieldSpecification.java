@@ -7,18 +7,20 @@ import org.springframework.data.jpa.domain.Specification;
 import java.util.function.Function;
 
 import static java.util.Objects.isNull;
-import static ro.george.postelnicu.geolibrary.util.StringUtil.LIKE;
-import static ro.george.postelnicu.geolibrary.util.StringUtil.WILDCARD;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.*;
 
 public class StringLikeFieldSpecification<T> implements Specification<T> {
 
     private final Object value;
     private final Function<Root<T>, Expression<String>> fieldExpressionProvider;
+    private final boolean normalized;
 
     private StringLikeFieldSpecification(Object value,
-                                         Function<Root<T>, Expression<String>> fieldExpressionProvider) {
+                                         Function<Root<T>, Expression<String>> fieldExpressionProvider,
+                                         boolean normalized) {
         this.value = value;
         this.fieldExpressionProvider = fieldExpressionProvider;
+        this.normalized = normalized;
     }
 
     @Override
@@ -27,30 +29,33 @@ public class StringLikeFieldSpecification<T> implements Specification<T> {
             return cb.conjunction();
         }
 
-        Expression<String> expression = fieldExpressionProvider.apply(root);
+        Expression<String> expression = normalized ?
+                fieldExpressionProvider.apply(root) :
+                cb.lower(fieldExpressionProvider.apply(root));
         String v = getValueWithWildcards(value.toString());
         if (v.contains(LIKE)) {
-            return cb.like(cb.lower(expression), v);
+            return cb.like(expression, v);
         } else {
-            return cb.equal(cb.lower(expression), v);
+            return cb.equal(expression, v);
         }
     }
 
     public static <T> StringLikeFieldSpecification<T> buildSpecification(Object value,
                                                                          Function<Root<T>, Expression<String>> fieldExpressionProvider) {
-        return new StringLikeFieldSpecification<>(value, fieldExpressionProvider);
+        return new StringLikeFieldSpecification<>(value, fieldExpressionProvider, false);
     }
 
-    private String getValueWithWildcards(@NotNull String value) {
-        return value.replace(WILDCARD, LIKE).toLowerCase();
+    /**
+     * Same as {@link #buildSpecification(Object, Function)}, for a field that already holds the lower case form of
+     * the value, which leaves the field untouched so its index can be used.
+     */
+    public static <T> StringLikeFieldSpecification<T> buildNormalizedSpecification(Object value,
+                                                                                   Function<Root<T>, Expression<String>> fieldExpressionProvider) {
+        return new StringLikeFieldSpecification<>(value, fieldExpressionProvider, true);
     }
 
-    private boolean isWrongWildcard(String value) {
-        if (value.contains(WILDCARD)) {
-            return WILDCARD.equals(value) ||
-                    (value.chars().filter(ch -> ch == WILDCARD.charAt(0)).count() > 2) ||
-                    (value.length() < 4);
-        } else return false;
+    private String getValueWithWildcards(@NotNull String value) {
+        return normalize(value.replace(WILDCARD, LIKE));
     }
 
     public boolean isBlank(Object value) {
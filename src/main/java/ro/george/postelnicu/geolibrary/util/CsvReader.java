@@ -0,0 +1,106 @@
+package ro.george.postelnicu.geolibrary.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time: comma separated, optionally double quoted fields, where a quoted field
+ * may contain commas, line breaks and doubled quotes.
+ */
+public class CsvReader implements Closeable {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private int pending = EOF;
+    private boolean hasPending;
+    private long line = 1;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the line the next record starts on
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @return the fields of the next record, null once the input is exhausted
+     */
+    public List<String> next() throws IOException {
+        int ch = read();
+        if (ch == EOF) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (ch == EOF) {
+                    throw new IOException("Unterminated quoted field before line " + line);
+                } else if (ch == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(following);
+                    }
+                } else {
+                    field.append((char) ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\r' || ch == '\n' || ch == EOF) {
+                if (ch == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) ch);
+            }
+            ch = read();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        int ch;
+        if (hasPending) {
+            hasPending = false;
+            ch = pending;
+        } else {
+            ch = reader.read();
+        }
+        if (ch == '\n') {
+            line++;
+        }
+        return ch;
+    }
+
+    private void unread(int ch) {
+        if (ch == '\n') {
+            line--;
+        }
+        pending = ch;
+        hasPending = true;
+    }
+}
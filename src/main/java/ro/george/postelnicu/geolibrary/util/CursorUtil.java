@@ -0,0 +1,33 @@
+package ro.george.postelnicu.geolibrary.util;
+
+import ro.george.postelnicu.geolibrary.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the last seen sort key of a keyset scroll into an opaque, url safe cursor.
+ */
+public class CursorUtil {
+
+    public static String encode(Object key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeString(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public static Long decodeLong(String cursor) {
+        try {
+            return Long.valueOf(decodeString(cursor));
+        } catch (NumberFormatException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
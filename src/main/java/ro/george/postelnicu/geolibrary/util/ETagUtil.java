@@ -0,0 +1,55 @@
+package ro.george.postelnicu.geolibrary.util;
+
+import java.util.function.LongPredicate;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Turns entity versions into strong ETags and matches them against the If-Match and If-None-Match headers.
+ */
+public class ETagUtil {
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @return the ETag of the gzip compressed representation of the version, which differs from the identity one
+     * since its bytes do
+     */
+    public static String gzipped(long version) {
+        return "\"" + version + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * @param strong whether weak ETags are left out of the comparison, as If-Match requires
+     * @return whether the header is a wildcard or lists an ETag of the version, gzip compressed or not
+     */
+    public static boolean matches(String header, long version, boolean strong) {
+        String etag = of(version);
+        String gzipped = gzipped(version);
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals(ANY)) {
+                return true;
+            }
+            if (!strong && candidate.startsWith(WEAK_PREFIX)) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (candidate.equals(etag) || candidate.equals(gzipped)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the check an If-Match header puts on the version being overwritten, accepting any when it is absent
+     */
+    public static LongPredicate ifMatch(String header) {
+        return version -> isNull(header) || matches(header, version, true);
+    }
+}
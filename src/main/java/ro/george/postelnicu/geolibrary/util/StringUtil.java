@@ -1,12 +1,20 @@
 package ro.george.postelnicu.geolibrary.util;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static java.util.Objects.isNull;
+
 public class StringUtil {
     public static final String WILDCARD = "*";
     public static final String LIKE = "%";
     public static final String SPACE = " ";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
 
     public static String splitCapitalizeAndJoin(String text) {
         return Arrays.stream(text.split(SPACE))
@@ -14,6 +22,41 @@ public class StringUtil {
                 .collect(Collectors.joining(SPACE));
     }
 
+    /**
+     * A wildcard is only honoured when used at most twice in a value of at least four characters.
+     */
+    public static boolean isWrongWildcard(String value) {
+        if (value.contains(WILDCARD)) {
+            return WILDCARD.equals(value) ||
+                    (value.chars().filter(ch -> ch == WILDCARD.charAt(0)).count() > 2) ||
+                    (value.length() < 4);
+        } else return false;
+    }
+
+    /**
+     * The form stored in the *_norm columns; values must go through it before being compared to those columns.
+     */
+    public static String normalize(String text) {
+        return isNull(text) ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    public static Set<String> normalize(Collection<String> texts) {
+        return isNull(texts) ? null : texts.stream().map(StringUtil::normalize).collect(Collectors.toSet());
+    }
+
+    /**
+     * Splits the text into distinct lower case words, dropping punctuation and full-text operators.
+     */
+    public static List<String> tokenize(String text) {
+        if (isNull(text) || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase()))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
     private static String capitalizeFirstLetter(String text) {
         return text.substring(0, 1).toUpperCase() + text.toLowerCase().substring(1);
     }
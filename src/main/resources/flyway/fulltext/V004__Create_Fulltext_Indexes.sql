@@ -0,0 +1,2 @@
+alter table book
+    add fulltext index ft_book_text (name, full_title, description);
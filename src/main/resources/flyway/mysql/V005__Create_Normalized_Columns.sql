@@ -0,0 +1,38 @@
+alter table author
+    add column name_norm VARCHAR(255);
+alter table keyword
+    add column name_norm VARCHAR(255);
+alter table language
+    add column name_norm VARCHAR(255);
+alter table book
+    add column name_norm VARCHAR(255);
+alter table book
+    add column full_title_norm VARCHAR(255);
+alter table book
+    add column publisher_norm VARCHAR(255);
+alter table book
+    add column isbn_norm VARCHAR(255);
+alter table book
+    add column barcode_norm VARCHAR(255);
+
+update author
+set name_norm = lower(name);
+update keyword
+set name_norm = lower(name);
+update language
+set name_norm = lower(name);
+update book
+set name_norm       = lower(name),
+    full_title_norm = lower(full_title),
+    publisher_norm  = lower(publisher),
+    isbn_norm       = lower(isbn),
+    barcode_norm    = lower(barcode);
+
+create index idx_author_name_norm on author (name_norm);
+create index idx_keyword_name_norm on keyword (name_norm);
+create index idx_language_name_norm on language (name_norm);
+create index idx_book_name_norm on book (name_norm);
+create index idx_book_full_title_norm on book (full_title_norm);
+create index idx_book_publisher_norm on book (publisher_norm);
+create index idx_book_isbn_norm on book (isbn_norm);
+create index idx_book_barcode_norm on book (barcode_norm);
@@ -0,0 +1,13 @@
+alter table author
+    add column book_count INT NOT NULL DEFAULT 0;
+alter table keyword
+    add column book_count INT NOT NULL DEFAULT 0;
+alter table language
+    add column book_count INT NOT NULL DEFAULT 0;
+
+update author
+set book_count = (select count(*) from book_author where book_author.author_id = author.id);
+update keyword
+set book_count = (select count(*) from book_keyword where book_keyword.keyword_id = keyword.id);
+update language
+set book_count = (select count(*) from book_language where book_language.language_id = language.id);
@@ -0,0 +1,8 @@
+alter table book
+    add column version BIGINT NOT NULL DEFAULT 0;
+alter table author
+    add column version BIGINT NOT NULL DEFAULT 0;
+alter table keyword
+    add column version BIGINT NOT NULL DEFAULT 0;
+alter table language
+    add column version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+alter table book
+    add column uuid CHAR(36);
+
+update book
+set uuid = uuid();
+
+alter table book
+    modify uuid CHAR(36) NOT NULL;
+alter table book
+    add constraint uk_book_uuid unique (uuid);
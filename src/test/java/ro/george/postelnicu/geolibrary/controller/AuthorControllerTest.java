@@ -1,6 +1,7 @@
 package ro.george.postelnicu.geolibrary.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,28 +9,45 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.BulkItemsDto;
 import ro.george.postelnicu.geolibrary.dto.ErrorDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionDto;
+import ro.george.postelnicu.geolibrary.dto.SuggestionsDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorsDto;
-import ro.george.postelnicu.geolibrary.dto.author.AuthorsResponseDto;
 import ro.george.postelnicu.geolibrary.model.Author;
 import ro.george.postelnicu.geolibrary.service.AuthorService;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.NameUsageDto;
+import com.fasterxml.jackson.core.type.TypeReference;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.AUTHORS;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BULK;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.SUGGEST;
 import static ro.george.postelnicu.geolibrary.controller.GlobalControllerAdvice.BAD_REQUEST_ERROR_TYPE;
+import static ro.george.postelnicu.geolibrary.controller.GlobalControllerAdvice.PRECONDITION_FAILED_ERROR_TYPE;
 import static ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException.ENTITY_ALREADY_HAS_A;
 import static ro.george.postelnicu.geolibrary.exception.EntityNotFoundException.CANNOT_FIND_ENTITY_ID;
+import static ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException.ENTITY_VERSION_MISMATCH;
 import static ro.george.postelnicu.geolibrary.model.EntityName.AUTHOR;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class AuthorControllerTest extends AbstractIntegrationTest {
 
@@ -51,6 +69,25 @@ class AuthorControllerTest extends AbstractIntegrationTest {
                 .setControllerAdvice(new GlobalControllerAdvice()).build();
     }
 
+    @Test
+    void list_shouldReturnTheMatchingAuthorsInNameOrder_whenAPrefixIsGiven() throws Exception {
+        service.createAllIfNotExisting(Set.of(LINDA, KADI, BART, KAJA));
+
+        String responseString = this.mockMvc.perform(
+                        get(AUTHORS)
+                                .queryParam("prefix", "ka")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        CursorPageDto<NameUsageDto> responseDto = objectMapper.readValue(responseString, new TypeReference<>() {});
+
+        assertEquals(List.of(KADI, KAJA), responseDto.getContent().stream().map(NameUsageDto::getName).toList());
+        assertNull(responseDto.getNextCursor());
+    }
+
     @Test
     void createBulk_shouldReturn200_whenAuthorsDoNotExist() throws Exception {
         AuthorsDto dto = new AuthorsDto();
@@ -65,14 +102,34 @@ class AuthorControllerTest extends AbstractIntegrationTest {
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
-        AuthorsResponseDto responseDto = objectMapper.readValue(responseString, AuthorsResponseDto.class);
+        BulkItemsDto responseDto = objectMapper.readValue(responseString, BulkItemsDto.class);
 
         assertNotNull(responseDto.getElements());
         assertEquals(2, responseDto.getElements().size());
     }
 
     @Test
-    void createBulk_shouldThrowException_whenAnyOfTheAuthorsAlreadyExists() throws Exception {
+    void suggest_shouldReturn200_andTheAuthorsStartingWithThePrefix() throws Exception {
+        AuthorsDto dto = new AuthorsDto();
+        dto.setAuthors(Set.of(LINDA, BART, KADI, KAJA));
+        service.createBulk(dto);
+
+        String responseString = this.mockMvc.perform(
+                        get(AUTHORS + SUGGEST)
+                                .queryParam("prefix", "ka")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        SuggestionsDto responseDto = objectMapper.readValue(responseString, SuggestionsDto.class);
+
+        assertEquals(List.of(KADI, KAJA), responseDto.getElements().stream().map(SuggestionDto::getName).toList());
+    }
+
+    @Test
+    void createBulk_shouldReturn200_andReportTheAuthorsThatAlreadyExist() throws Exception {
         AuthorsDto dto = new AuthorsDto();
         dto.setAuthors(Set.of(LINDA, BART));
         service.createBulk(dto);
@@ -81,16 +138,15 @@ class AuthorControllerTest extends AbstractIntegrationTest {
                         post(AUTHORS + BULK)
                                 .content(objectMapper.writeValueAsString(dto))
                                 .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
+        BulkItemsDto responseDto = objectMapper.readValue(responseString, BulkItemsDto.class);
 
-        ErrorDto errorDto = objectMapper.readValue(responseString, ErrorDto.class);
-
-        assertEquals(BAD_REQUEST_ERROR_TYPE, errorDto.getTitle());
-        assertEquals(String.format(ENTITY_ALREADY_HAS_A, AUTHOR, BART), errorDto.getDetail());
+        assertEquals(2, responseDto.size());
+        assertTrue(responseDto.getElements().stream().noneMatch(BulkItemDto::isCreated));
     }
 
     @Test
@@ -152,6 +208,46 @@ class AuthorControllerTest extends AbstractIntegrationTest {
         assertEquals(author.getName(), responseDto.getName());
     }
 
+    @Test
+    void read_shouldReturnCbor_whenTheClientAcceptsIt() throws Exception {
+        Author author = service.create(new AuthorDto(LINDA));
+
+        byte[] response = this.mockMvc.perform(
+                        get(STR."\{AUTHORS}/\{author.getId()}")
+                                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        AuthorResponseDto responseDto = objectMapper.copyWith(new CBORFactory()).readValue(response, AuthorResponseDto.class);
+
+        assertEquals(author.getId(), responseDto.getId());
+        assertEquals(author.getName(), responseDto.getName());
+    }
+
+    @Test
+    void read_shouldReturn304_whenTheETagStillMatches() throws Exception {
+        Author author = service.create(new AuthorDto(LINDA));
+
+        String etag = this.mockMvc.perform(get(STR."\{AUTHORS}/\{author.getId()}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+
+        this.mockMvc.perform(get(STR."\{AUTHORS}/\{author.getId()}").header(IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, etag))
+                .andExpect(content().string(""));
+
+        service.update(author.getId(), new AuthorDto(KADI));
+
+        this.mockMvc.perform(get(STR."\{AUTHORS}/\{author.getId()}").header(IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, ETagUtil.of(author.getVersion() + 1)));
+    }
+
     @Test
     void read_shouldThrowException_whenIdIsNotFound() throws Exception {
         String responseString = this.mockMvc.perform(
@@ -191,6 +287,41 @@ class AuthorControllerTest extends AbstractIntegrationTest {
         assertEquals(KADI, responseDto.getName());
     }
 
+    @Test
+    void update_shouldReturn412_whenIfMatchIsStale() throws Exception {
+        AuthorDto authorDto = new AuthorDto(LINDA);
+        Author author = service.create(authorDto);
+        String etag = ETagUtil.of(author.getVersion());
+        authorDto.setName(KADI);
+
+        this.mockMvc.perform(
+                        put(STR."\{AUTHORS}/\{author.getId()}")
+                                .header(IF_MATCH, etag)
+                                .content(objectMapper.writeValueAsString(authorDto))
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, ETagUtil.of(author.getVersion() + 1)));
+
+        authorDto.setName(BART);
+        String responseString = this.mockMvc.perform(
+                        put(STR."\{AUTHORS}/\{author.getId()}")
+                                .header(IF_MATCH, etag)
+                                .content(objectMapper.writeValueAsString(authorDto))
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        ErrorDto errorDto = objectMapper.readValue(responseString, ErrorDto.class);
+
+        assertEquals(String.format(ENTITY_VERSION_MISMATCH, AUTHOR, author.getId(), ETagUtil.of(author.getVersion() + 1)),
+                errorDto.getDetail());
+        assertEquals(PRECONDITION_FAILED_ERROR_TYPE, errorDto.getTitle());
+        assertEquals(KADI, service.read(author.getId()).getName());
+    }
+
     @Test
     void update_shouldThrowException_whenIdIsNotFound() throws Exception {
         AuthorDto authorDto = new AuthorDto(LINDA);
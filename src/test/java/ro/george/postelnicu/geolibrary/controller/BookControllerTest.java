@@ -1,7 +1,9 @@
 package ro.george.postelnicu.geolibrary.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,29 +13,51 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
 import ro.george.postelnicu.geolibrary.dto.ErrorDto;
 import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookPatchDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookField;
 import ro.george.postelnicu.geolibrary.service.BookService;
+import ro.george.postelnicu.geolibrary.util.ETagUtil;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BOOKS;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.EXPORT;
+import static ro.george.postelnicu.geolibrary.controller.BookImportController.TEXT_CSV_VALUE;
 import static ro.george.postelnicu.geolibrary.controller.GlobalControllerAdvice.BAD_REQUEST_ERROR_TYPE;
 import static ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException.ENTITY_ALREADY_HAS_A;
 import static ro.george.postelnicu.geolibrary.exception.EntityNotFoundException.CANNOT_FIND_ENTITY_ID;
+import static ro.george.postelnicu.geolibrary.exception.InvalidCursorException.INVALID_CURSOR;
+import static ro.george.postelnicu.geolibrary.exception.InvalidFieldException.INVALID_FIELD;
+import static ro.george.postelnicu.geolibrary.model.CoverType.HARDCOVER;
 import static ro.george.postelnicu.geolibrary.model.EntityName.BOOK;
 
 class BookControllerTest extends AbstractIntegrationTest {
@@ -109,7 +133,6 @@ class BookControllerTest extends AbstractIntegrationTest {
     }
 
     @Test
-    @Transactional
     void read_shouldReturn200_whenIdIsFound() throws Exception {
         BookDto requestDto = landscapesOfIdentity();
         Book book = service.create(requestDto);
@@ -214,6 +237,77 @@ class BookControllerTest extends AbstractIntegrationTest {
         assertEquals(String.format(ENTITY_ALREADY_HAS_A, BOOK, existingDto.getName()), errorDto.getDetail());
     }
 
+    @Test
+    void patch_shouldReturn204_andChangeOnlyTheGivenFields() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+        BookPatchDto patchDto = new BookPatchDto();
+        patchDto.setPages(300);
+
+        mockMvc.perform(
+                        patch(STR."\{BOOKS}/{id}", book.getId())
+                                .header(IF_MATCH, ETagUtil.of(book.getVersion()))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(patchDto)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion() + 1)));
+
+        Book patched = service.read(book.getId());
+        assertEquals(300, patched.getPages());
+        assertEquals(LANDSCAPES_OF_IDENTITY, patched.getName());
+        assertEquals(LOREM_IPSUM, patched.getDescription());
+    }
+
+    @Test
+    void patch_shouldReturn400_whenTheNameIsBlank() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+        BookPatchDto patchDto = new BookPatchDto();
+        patchDto.setName(" ");
+
+        mockMvc.perform(
+                        patch(STR."\{BOOKS}/{id}", book.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(patchDto)))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(LANDSCAPES_OF_IDENTITY, service.read(book.getId()).getName());
+    }
+
+    @Test
+    void patch_shouldReturn400_whenTheIsbnIsBlank() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+        BookPatchDto patchDto = new BookPatchDto();
+        patchDto.setIsbn("");
+
+        mockMvc.perform(
+                        patch(STR."\{BOOKS}/{id}", book.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(patchDto)))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(book.getIsbn(), service.read(book.getId()).getIsbn());
+    }
+
+    @Test
+    void addAndRemoveRelation_shouldReturn204_andMoveTheVersion() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+
+        mockMvc.perform(post(STR."\{BOOKS}/{id}/keywords/{name}", book.getId(), FINANCE))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion() + 1)));
+        mockMvc.perform(post(STR."\{BOOKS}/{id}/keywords/{name}", book.getId(), FINANCE))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion() + 1)));
+        mockMvc.perform(delete(STR."\{BOOKS}/{id}/authors/{name}", book.getId(), KADI)
+                        .header(IF_MATCH, ETagUtil.of(book.getVersion())))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(STR."\{BOOKS}/{id}/authors/{name}", book.getId(), KADI)
+                        .header(IF_MATCH, ETagUtil.of(book.getVersion() + 1)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion() + 2)));
+
+        assertEquals(book.getVersion() + 2, service.readVersion(book.getId()));
+    }
+
     @Test
     void delete_isSuccessful() throws Exception {
         BookDto requestDto = landscapesOfIdentity();
@@ -263,6 +357,365 @@ class BookControllerTest extends AbstractIntegrationTest {
         assertEquals(book2.getName(), responseBooks.get(1).getName());
     }
 
+    @Test
+    void search_shouldReturnTheSamePageAsCbor_inFewerBytes_whenTheClientAcceptsIt() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(conflictsAndAdaptations());
+        service.create(oneHundredStepsThrough20thCenturyEstonianArchitecture());
+        service.create(oneHundredFiftyHouses());
+
+        byte[] json = mockMvc.perform(get(BOOKS).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get(BOOKS).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(objectMapper.readTree(json), objectMapper.copyWith(new CBORFactory()).readTree(cbor));
+        assertTrue(cbor.length < json.length, STR."\{cbor.length} CBOR bytes, \{json.length} JSON bytes");
+    }
+
+    @Test
+    void read_shouldReturnTheSameJsonGzipped_whenTheClientAcceptsIt() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+
+        byte[] json = mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] gzipped = mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId())
+                        .header(ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(VARY, containsString(ACCEPT_ENCODING)))
+                .andExpect(header().string(ETAG, ETagUtil.gzipped(book.getVersion())))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertArrayEquals(json, gzip.readAllBytes());
+        }
+        assertTrue(gzipped.length < json.length, STR."\{gzipped.length} gzip bytes, \{json.length} JSON bytes");
+    }
+
+    @Test
+    void read_shouldServeTheCachedJson_whenEveryFieldIsListed() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+        String everyField = Arrays.stream(BookField.values())
+                .map(BookField::getProperty)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId())
+                        .queryParam("fields", everyField)
+                        .header(ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void read_shouldTagTheGzippedJsonApart_andStillMatchIt() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion())));
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId())
+                        .header(ACCEPT_ENCODING, "gzip")
+                        .header(IF_NONE_MATCH, ETagUtil.gzipped(book.getVersion())))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, ETagUtil.gzipped(book.getVersion())));
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId())
+                        .header(IF_NONE_MATCH, ETagUtil.gzipped(book.getVersion())))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion())));
+    }
+
+    @Test
+    void read_shouldNegotiateJsonOrCbor_fromTheAcceptHeader() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId())
+                        .header(ACCEPT, "application/cbor;q=0.5, application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId())
+                        .header(ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId()).accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId()).header(ACCEPT, "application"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void read_shouldReturnCbor_butKeepErrorsAsProblemJson() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+
+        byte[] response = mockMvc.perform(get(STR."\{BOOKS}/{id}", book.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        BookResponseDto responseDto = cborMapper.readValue(response, BookResponseDto.class);
+        assertEquals(book.getId(), responseDto.getId());
+        assertEquals(landscapesOfIdentity().getAuthors(), getAuthorNames(responseDto.getAuthors()));
+
+        byte[] error = mockMvc.perform(get(STR."\{BOOKS}/{id}", ID_NOT_FOUND).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(String.format(CANNOT_FIND_ENTITY_ID, BOOK, ID_NOT_FOUND),
+                objectMapper.readValue(error, ErrorDto.class).getDetail());
+    }
+
+    @Test
+    @Transactional
+    void search_shouldReturn200_andSkipTheCount_whenCountIsNone() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(conflictsAndAdaptations());
+
+        String responseString = mockMvc.perform(
+                        get(BOOKS)
+                                .queryParam("size", "1")
+                                .queryParam("count", "NONE")
+                                .queryParam("languages", ENGLISH)
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode slice = objectMapper.readTree(responseString);
+
+        assertEquals(1, slice.get("content").size());
+        assertEquals(LANDSCAPES_OF_IDENTITY, slice.get("content").get(0).get("name").asText());
+        assertFalse(slice.get("last").asBoolean());
+        assertFalse(slice.has("totalElements"));
+    }
+
+    @Test
+    void search_shouldEstimateTheTotal_unlessAnExactCountIsAskedFor() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(conflictsAndAdaptations());
+        service.create(oneHundredFiftyHouses());
+
+        JsonNode estimated = objectMapper.readTree(mockMvc.perform(get(BOOKS).queryParam("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        JsonNode exact = objectMapper.readTree(mockMvc.perform(get(BOOKS)
+                        .queryParam("size", "1")
+                        .queryParam("count", "EXACT"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        // the test estimate limit is two books
+        assertFalse(estimated.get("exact").asBoolean());
+        assertEquals(2, estimated.get("totalElements").asInt());
+        assertFalse(exact.has("exact"));
+        assertEquals(3, exact.get("totalElements").asInt());
+    }
+
+    @Test
+    @Transactional
+    void search_shouldReturn200_andFacets_whenFacetsAreRequested() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(oneHundredFiftyHouses());
+
+        String responseString = mockMvc.perform(
+                        get(BOOKS)
+                                .queryParam("facets", "true")
+                                .queryParam("size", "1")
+                                .queryParam("languages", ENGLISH)
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode result = objectMapper.readTree(responseString);
+
+        assertEquals(2, result.get("page").get("totalElements").asInt());
+        assertEquals(1, result.get("page").get("content").size());
+        JsonNode facets = result.get("facets");
+        assertEquals(1, facets.get("coverTypes").get(HARDCOVER.name()).asInt());
+        assertEquals(2, facets.get("languages").get(ENGLISH).asInt());
+        assertEquals(2, facets.get("publishYears").get("2021").asInt());
+    }
+
+    @Test
+    @Transactional
+    void scroll_shouldReturn200_andFollowTheCursorToTheLastPage() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(conflictsAndAdaptations());
+        service.create(oneHundredFiftyHouses());
+
+        CursorPageDto<BookResponseDto> firstPage = scroll("", "2");
+        assertEquals(List.of(LANDSCAPES_OF_IDENTITY, CONFLICTS_AND_ADAPTATIONS), getBookNames(firstPage));
+        assertNotNull(firstPage.getNextCursor());
+
+        CursorPageDto<BookResponseDto> lastPage = scroll(firstPage.getNextCursor(), "2");
+        assertEquals(List.of(HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE), getBookNames(lastPage));
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void scroll_shouldReturn400_whenCursorIsInvalid() throws Exception {
+        String responseString = mockMvc.perform(
+                        get(BOOKS)
+                                .queryParam("after", NOT_FOUND)
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        ErrorDto errorDto = objectMapper.readValue(responseString, ErrorDto.class);
+
+        assertEquals(BAD_REQUEST_ERROR_TYPE, errorDto.getTitle());
+        assertEquals(String.format(INVALID_CURSOR, NOT_FOUND), errorDto.getDetail());
+    }
+
+    @Test
+    void search_shouldReturnOnlyTheSummary_whenTheSummaryViewIsRequested() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(oneHundredFiftyHouses());
+
+        String responseString = mockMvc.perform(
+                        get(BOOKS)
+                                .queryParam("fields", "summary")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        JsonNode content = objectMapper.readTree(responseString).get("content");
+
+        assertEquals(2, content.size());
+        for (JsonNode book : content) {
+            List<String> properties = new ArrayList<>();
+            book.fieldNames().forEachRemaining(properties::add);
+            assertEquals(Set.of("id", "name", "isbn", "publisher", "publishYear", "status"), Set.copyOf(properties));
+        }
+    }
+
+    @Test
+    void read_shouldReturnOnlyTheRequestedFields_andTheirRelations() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+
+        String responseString = mockMvc.perform(
+                        get(STR."\{BOOKS}/{id}", book.getId())
+                                .queryParam("fields", "name,authors")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ETAG, ETagUtil.of(book.getVersion())))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        BookResponseDto responseDto = objectMapper.readValue(responseString, BookResponseDto.class);
+
+        assertEquals(book.getId(), responseDto.getId());
+        assertEquals(LANDSCAPES_OF_IDENTITY, responseDto.getName());
+        assertEquals(landscapesOfIdentity().getAuthors(), getAuthorNames(responseDto.getAuthors()));
+        assertNull(responseDto.getDescription());
+        assertNull(responseDto.getIsbn());
+        assertNull(responseDto.getKeywords());
+        assertNull(responseDto.getLanguages());
+    }
+
+    @Test
+    void read_shouldReturn400_whenAFieldIsUnknown() throws Exception {
+        Book book = service.create(landscapesOfIdentity());
+
+        String responseString = mockMvc.perform(
+                        get(STR."\{BOOKS}/{id}", book.getId())
+                                .queryParam("fields", "name,version")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        ErrorDto errorDto = objectMapper.readValue(responseString, ErrorDto.class);
+
+        assertEquals(BAD_REQUEST_ERROR_TYPE, errorDto.getTitle());
+        assertEquals(String.format(INVALID_FIELD, "version"), errorDto.getDetail());
+    }
+
+    @Test
+    void exportBooks_shouldStreamCsv_onlyWhenTheClientAcceptsIt() throws Exception {
+        service.create(landscapesOfIdentity());
+        service.create(oneHundredFiftyHouses());
+
+        String ndjson = mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").param("cover_type", HARDCOVER.name()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE + ";charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+        List<String> names = new ArrayList<>();
+        for (String line : ndjson.lines().toList()) {
+            names.add(objectMapper.readValue(line, BookResponseDto.class).getName());
+        }
+        assertEquals(List.of(HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE), names);
+
+        String csv = mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").accept(TEXT_CSV_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TEXT_CSV_VALUE + ";charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(3, csv.lines().count());
+        assertTrue(csv.startsWith("id,name,"));
+    }
+
+    @Test
+    void exportBooks_shouldNegotiateTheFormat_fromTheAcceptHeader() throws Exception {
+        service.create(landscapesOfIdentity());
+
+        mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE + ";charset=UTF-8"));
+        mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").header(ACCEPT, "text/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TEXT_CSV_VALUE + ";charset=UTF-8"));
+        mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").header(ACCEPT, "application/x-ndjson;q=0.5, text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TEXT_CSV_VALUE + ";charset=UTF-8"));
+        mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get(STR."\{BOOKS}\{EXPORT}").header(ACCEPT, "text"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    private CursorPageDto<BookResponseDto> scroll(String after, String size) throws Exception {
+        String responseString = mockMvc.perform(
+                        get(BOOKS)
+                                .queryParam("after", after)
+                                .queryParam("size", size)
+                                .queryParam("languages", ENGLISH)
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readValue(responseString, new TypeReference<>() {});
+    }
+
+    private static List<String> getBookNames(CursorPageDto<BookResponseDto> page) {
+        return page.getContent().stream().map(BookResponseDto::getName).toList();
+    }
+
     private static Set<String> getAuthorNames(Set<AuthorResponseDto> authors) {
         return authors.stream().map(AuthorResponseDto::getName).collect(Collectors.toSet());
     }
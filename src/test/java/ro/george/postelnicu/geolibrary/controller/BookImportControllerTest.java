@@ -0,0 +1,95 @@
+package ro.george.postelnicu.geolibrary.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.model.BookImportResult;
+
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BOOKS;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.IMPORT;
+import static ro.george.postelnicu.geolibrary.controller.BookImportController.TEXT_CSV_VALUE;
+
+class BookImportControllerTest extends AbstractIntegrationTest {
+    private final BookImportController controller;
+    private final ObjectMapper objectMapper;
+    private MockMvc mockMvc;
+
+    @Autowired
+    BookImportControllerTest(BookImportController controller, ObjectMapper objectMapper) {
+        this.controller = controller;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    void setup() {
+        this.mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalControllerAdvice()).build();
+    }
+
+    @Test
+    void importBooks_streamsAReportLinePerRecord_whenGivenNdjson() throws Exception {
+        BookDto missingStatus = conflictsAndAdaptations();
+        missingStatus.setStatus(null);
+        String body = objectMapper.writeValueAsString(landscapesOfIdentity()) + "\n" +
+                objectMapper.writeValueAsString(missingStatus) + "\n";
+
+        List<BookImportResult> report = importBooks(MediaType.APPLICATION_NDJSON, body);
+
+        assertEquals(2, report.size());
+        assertEquals(LANDSCAPES_OF_IDENTITY, report.get(0).name());
+        assertNotNull(report.get(0).id());
+        assertEquals(CONFLICTS_AND_ADAPTATIONS, report.get(1).name());
+        assertNull(report.get(1).id());
+        assertTrue(report.get(1).error().startsWith("status "));
+    }
+
+    @Test
+    void importBooks_streamsAReportLinePerRecord_whenGivenCsv() throws Exception {
+        String body = """
+                name,isbn,status,authors
+                Landscapes of Identity,ISBN 978-9949-687-32-9,HAVE,Linda Kalijundi|Kadi Polli
+                """;
+
+        List<BookImportResult> report = importBooks(MediaType.valueOf(TEXT_CSV_VALUE), body);
+
+        assertEquals(1, report.size());
+        assertEquals(2, report.getFirst().line());
+        assertFalse(report.getFirst().hasError());
+    }
+
+    private List<BookImportResult> importBooks(MediaType contentType, String body) throws Exception {
+        String response = mockMvc.perform(
+                        post(BOOKS + IMPORT)
+                                .contentType(contentType)
+                                .content(body.getBytes(UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE + ";charset=UTF-8"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(UTF_8);
+
+        return response.lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BookImportResult.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
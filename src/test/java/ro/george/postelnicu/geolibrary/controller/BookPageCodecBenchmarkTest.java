@@ -0,0 +1,117 @@
+package ro.george.postelnicu.geolibrary.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.model.BookField;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+import ro.george.postelnicu.geolibrary.service.BookSearchService;
+import ro.george.postelnicu.geolibrary.service.BookService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+
+/**
+ * Times encoding and decoding a page of books as JSON and as CBOR. Tagged benchmark and so left out of the default
+ * test run, since its timings only mean something on a quiet machine: {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BookPageCodecBenchmarkTest extends AbstractIntegrationTest {
+    private static final Logger log = LoggerFactory.getLogger(BookPageCodecBenchmarkTest.class);
+    private static final TypeReference<Page<BookResponseDto>> PAGE = new TypeReference<>() {};
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 1_000;
+
+    private final BookService bookService;
+    private final BookSearchService searchService;
+    private final ObjectMapper objectMapper;
+    // keeps the results reachable, so the JIT cannot drop the work that made them
+    private int sink;
+
+    @Autowired
+    BookPageCodecBenchmarkTest(BookService bookService, BookSearchService searchService, ObjectMapper objectMapper) {
+        this.bookService = bookService;
+        this.searchService = searchService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void encodeAndDecode_aPageOfBooks_asJsonAndAsCbor() throws Exception {
+        Page<BookResponseDto> page = pageOfBooks();
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        byte[] json = objectMapper.writeValueAsBytes(page);
+        byte[] cbor = cborMapper.writeValueAsBytes(page);
+        assertEquals(objectMapper.readTree(json), cborMapper.readTree(cbor));
+
+        measure("JSON", json.length, () -> objectMapper.writeValueAsBytes(page), () -> objectMapper.readValue(json, PAGE));
+        measure("CBOR", cbor.length, () -> cborMapper.writeValueAsBytes(page), () -> cborMapper.readValue(cbor, PAGE));
+        log.debug("sink {}", sink);
+    }
+
+    private Page<BookResponseDto> pageOfBooks() {
+        bookService.create(landscapesOfIdentity());
+        bookService.create(conflictsAndAdaptations());
+        bookService.create(oneHundredStepsThrough20thCenturyEstonianArchitecture());
+        bookService.create(oneHundredFiftyHouses());
+        BookSearchCriteria all = new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, null,
+                null, null, null, null, null);
+        List<BookResponseDto> books = searchService.searchViews(all, PageRequest.of(0, 20), BookField.ALL)
+                .getContent();
+
+        // the same books over and over, the codecs do not care
+        List<BookResponseDto> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(books.get(i % books.size()));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 10L * PAGE_SIZE);
+    }
+
+    private void measure(String format, int bytes, Operation encode, Operation decode) throws IOException {
+        log.info("{}: {} bytes, encode {} ns/op, decode {} ns/op", format, bytes, time(encode), time(decode));
+    }
+
+    /**
+     * @return the fastest round, in nanoseconds per operation
+     */
+    private long time(Operation operation) throws IOException {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run(operation);
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, run(operation));
+        }
+        return best / OPERATIONS;
+    }
+
+    private long run(Operation operation) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += System.identityHashCode(operation.run());
+        }
+        return System.nanoTime() - start;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        Object run() throws IOException;
+    }
+}
@@ -1,6 +1,7 @@
 package ro.george.postelnicu.geolibrary.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,39 +9,52 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.BulkItemsDto;
 import ro.george.postelnicu.geolibrary.dto.ErrorDto;
+import ro.george.postelnicu.geolibrary.dto.UsageDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
 import ro.george.postelnicu.geolibrary.dto.keyword.KeywordsDto;
-import ro.george.postelnicu.geolibrary.dto.keyword.KeywordsResponseDto;
 import ro.george.postelnicu.geolibrary.model.Keyword;
 import ro.george.postelnicu.geolibrary.service.KeywordService;
+import ro.george.postelnicu.geolibrary.service.BookService;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.NameUsageDto;
+import com.fasterxml.jackson.core.type.TypeReference;
 
 import java.util.Set;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.BULK;
 import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.KEYWORDS;
+import static ro.george.postelnicu.geolibrary.controller.ApiPrefix.USAGE;
 import static ro.george.postelnicu.geolibrary.controller.GlobalControllerAdvice.BAD_REQUEST_ERROR_TYPE;
 import static ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException.ENTITY_ALREADY_HAS_A;
 import static ro.george.postelnicu.geolibrary.exception.EntityNotFoundException.CANNOT_FIND_ENTITY_ID;
 import static ro.george.postelnicu.geolibrary.model.EntityName.KEYWORD;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class KeywordControllerTest extends AbstractIntegrationTest {
     private final KeywordController controller;
     private final KeywordService service;
+    private final BookService bookService;
     private final ObjectMapper objectMapper;
     private MockMvc mockMvc;
 
     @Autowired
-    KeywordControllerTest(KeywordController controller, KeywordService service, ObjectMapper objectMapper) {
+    KeywordControllerTest(KeywordController controller, KeywordService service, BookService bookService,
+                          ObjectMapper objectMapper) {
         this.controller = controller;
         this.service = service;
+        this.bookService = bookService;
         this.objectMapper = objectMapper;
     }
 
@@ -64,14 +78,14 @@ class KeywordControllerTest extends AbstractIntegrationTest {
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
-        KeywordsResponseDto responseDto = objectMapper.readValue(responseString, KeywordsResponseDto.class);
+        BulkItemsDto responseDto = objectMapper.readValue(responseString, BulkItemsDto.class);
 
         assertNotNull(responseDto.getElements());
         assertEquals(2, responseDto.getElements().size());
     }
 
     @Test
-    void createBulk_shouldThrowException_whenAnyOfTheKeywordsAlreadyExists() throws Exception {
+    void createBulk_shouldReturn200_andReportTheKeywordsThatAlreadyExist() throws Exception {
         KeywordsDto dto = new KeywordsDto();
         dto.setKeywords(Set.of(ART, ARCHITECTURE));
         service.createBulk(dto);
@@ -80,16 +94,53 @@ class KeywordControllerTest extends AbstractIntegrationTest {
                         post(KEYWORDS + BULK)
                                 .content(objectMapper.writeValueAsString(dto))
                                 .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
+        BulkItemsDto responseDto = objectMapper.readValue(responseString, BulkItemsDto.class);
 
-        ErrorDto errorDto = objectMapper.readValue(responseString, ErrorDto.class);
+        assertEquals(2, responseDto.size());
+        assertTrue(responseDto.getElements().stream().noneMatch(BulkItemDto::isCreated));
+    }
 
-        assertEquals(BAD_REQUEST_ERROR_TYPE, errorDto.getTitle());
-        assertEquals(String.format(ENTITY_ALREADY_HAS_A, KEYWORD, ART), errorDto.getDetail());
+    @Test
+    void usage_shouldReturn200_withTheBookCountOfTheKeyword() throws Exception {
+        Keyword keyword = service.create(new KeywordDto(ART));
+
+        String responseString = this.mockMvc.perform(
+                        get(KEYWORDS + "/{id}" + USAGE, keyword.getId())
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        UsageDto responseDto = objectMapper.readValue(responseString, UsageDto.class);
+
+        assertEquals(keyword.getId(), responseDto.getId());
+        assertEquals(0, responseDto.getBookCount());
+    }
+
+    @Test
+    void list_shouldScrollThroughTheKeywordsInNameOrder_withTheirBookCounts() throws Exception {
+        bookService.create(landscapesOfIdentity());
+        service.create(new KeywordDto("Architecture"));
+
+        CursorPageDto<NameUsageDto> firstPage = list("?prefix=a&size=1&counts=true");
+        assertEquals(List.of("Architecture"), getNames(firstPage));
+        assertEquals(0, firstPage.getContent().getFirst().getBookCount());
+        assertNotNull(firstPage.getNextCursor());
+
+        CursorPageDto<NameUsageDto> lastPage = list(STR."?prefix=a&size=1&counts=true&after=\{firstPage.getNextCursor()}");
+        assertEquals(List.of(ART), getNames(lastPage));
+        assertEquals(1, lastPage.getContent().getFirst().getBookCount());
+        assertNull(lastPage.getNextCursor());
+
+        CursorPageDto<NameUsageDto> all = list("");
+        assertEquals(List.of("Architecture", ART, "Estonian Art", "Kumu Art Museum"), getNames(all));
+        assertTrue(all.getContent().stream().allMatch(keyword -> keyword.getBookCount() == null));
     }
 
     @Test
@@ -151,6 +202,24 @@ class KeywordControllerTest extends AbstractIntegrationTest {
         assertEquals(keyword.getName(), responseDto.getName());
     }
 
+    @Test
+    void read_shouldReturnCbor_whenTheClientAcceptsIt() throws Exception {
+        Keyword keyword = service.create(new KeywordDto(ART));
+
+        byte[] response = this.mockMvc.perform(
+                        get(STR."\{KEYWORDS}/\{keyword.getId()}")
+                                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        KeywordResponseDto responseDto = objectMapper.copyWith(new CBORFactory()).readValue(response, KeywordResponseDto.class);
+
+        assertEquals(keyword.getId(), responseDto.getId());
+        assertEquals(keyword.getName(), responseDto.getName());
+    }
+
     @Test
     void read_shouldThrowException_whenIdIsNotFound() throws Exception {
         String responseString = this.mockMvc.perform(
@@ -236,4 +305,20 @@ class KeywordControllerTest extends AbstractIntegrationTest {
         assertEquals(BAD_REQUEST_ERROR_TYPE, errorDto.getTitle());
         assertEquals(String.format(CANNOT_FIND_ENTITY_ID, KEYWORD, ID_NOT_FOUND), errorDto.getDetail());
     }
+
+    private CursorPageDto<NameUsageDto> list(String query) throws Exception {
+        String responseString = this.mockMvc.perform(
+                        get(KEYWORDS + query)
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readValue(responseString, new TypeReference<>() {});
+    }
+
+    private static List<String> getNames(CursorPageDto<NameUsageDto> page) {
+        return page.getContent().stream().map(NameUsageDto::getName).toList();
+    }
 }
@@ -1,6 +1,7 @@
 package ro.george.postelnicu.geolibrary.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,19 +10,25 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.BulkItemDto;
+import ro.george.postelnicu.geolibrary.dto.BulkItemsDto;
 import ro.george.postelnicu.geolibrary.dto.ErrorDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
 import ro.george.postelnicu.geolibrary.dto.language.LanguagesDto;
-import ro.george.postelnicu.geolibrary.dto.language.LanguagesResponseDto;
 import ro.george.postelnicu.geolibrary.model.Language;
 import ro.george.postelnicu.geolibrary.service.LanguageService;
+import ro.george.postelnicu.geolibrary.dto.CursorPageDto;
+import ro.george.postelnicu.geolibrary.dto.NameUsageDto;
+import com.fasterxml.jackson.core.type.TypeReference;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
@@ -31,6 +38,7 @@ import static ro.george.postelnicu.geolibrary.controller.GlobalControllerAdvice.
 import static ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException.ENTITY_ALREADY_HAS_A;
 import static ro.george.postelnicu.geolibrary.exception.EntityNotFoundException.CANNOT_FIND_ENTITY_ID;
 import static ro.george.postelnicu.geolibrary.model.EntityName.LANGUAGE;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class LanguageControllerTest extends AbstractIntegrationTest {
 
@@ -52,6 +60,25 @@ class LanguageControllerTest extends AbstractIntegrationTest {
                 .setControllerAdvice(new GlobalControllerAdvice()).build();
     }
 
+    @Test
+    void list_shouldReturnTheMatchingLanguagesInNameOrder_whenAPrefixIsGiven() throws Exception {
+        service.createAllIfNotExisting(Set.of(ENGLISH, FRENCH, ESTONIAN));
+
+        String responseString = this.mockMvc.perform(
+                        get(LANGUAGES)
+                                .queryParam("prefix", "e")
+                                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        CursorPageDto<NameUsageDto> responseDto = objectMapper.readValue(responseString, new TypeReference<>() {});
+
+        assertEquals(List.of(ENGLISH, ESTONIAN), responseDto.getContent().stream().map(NameUsageDto::getName).toList());
+        assertNull(responseDto.getNextCursor());
+    }
+
     @Test
     void createBulk_shouldReturn200_whenLanguagesDoNotExist() throws Exception {
         LanguagesDto languagesDto = new LanguagesDto();
@@ -67,33 +94,31 @@ class LanguageControllerTest extends AbstractIntegrationTest {
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
-        LanguagesResponseDto responseDto = objectMapper.readValue(responseString, LanguagesResponseDto.class);
+        BulkItemsDto responseDto = objectMapper.readValue(responseString, BulkItemsDto.class);
 
         assertNotNull(responseDto.getElements());
         assertEquals(2, responseDto.getElements().size());
     }
 
     @Test
-    void createBulk_shouldThrowException_whenAnyOfTheLanguagesAlreadyExists() throws Exception {
-        LanguagesDto languagesDto = new LanguagesDto();
-        languagesDto.setLanguages(Set.of(ENGLISH, FRENCH));
-        service.createBulk(languagesDto);
+    void createBulk_shouldReturn200_andReportTheLanguagesThatAlreadyExist() throws Exception {
+        LanguagesDto dto = new LanguagesDto();
+        dto.setLanguages(Set.of(ENGLISH, FRENCH));
+        service.createBulk(dto);
 
-        String responseString = this.mockMvc
-                .perform(
+        String responseString = this.mockMvc.perform(
                         post(LANGUAGES + BULK)
-                                .content(objectMapper.writeValueAsString(languagesDto))
+                                .content(objectMapper.writeValueAsString(dto))
                                 .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
+        BulkItemsDto responseDto = objectMapper.readValue(responseString, BulkItemsDto.class);
 
-        ErrorDto errorDto = objectMapper.readValue(responseString, ErrorDto.class);
-
-        assertEquals(BAD_REQUEST_ERROR_TYPE, errorDto.getTitle());
-        assertEquals(String.format(ENTITY_ALREADY_HAS_A, LANGUAGE, ENGLISH), errorDto.getDetail());
+        assertEquals(2, responseDto.size());
+        assertTrue(responseDto.getElements().stream().noneMatch(BulkItemDto::isCreated));
     }
 
     @Test
@@ -158,6 +183,24 @@ class LanguageControllerTest extends AbstractIntegrationTest {
         assertEquals(createDto.getName(), retrievedDto.getName());
     }
 
+    @Test
+    void read_shouldReturnCbor_whenTheClientAcceptsIt() throws Exception {
+        Language language = service.create(new LanguageDto(ENGLISH));
+
+        byte[] response = this.mockMvc.perform(
+                        get(STR."\{LANGUAGES}/\{language.getId()}")
+                                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        LanguageResponseDto responseDto = objectMapper.copyWith(new CBORFactory()).readValue(response, LanguageResponseDto.class);
+
+        assertEquals(language.getId(), responseDto.getId());
+        assertEquals(language.getName(), responseDto.getName());
+    }
+
     @Test
     void read_shouldThrowException_whenIdIsNotFound() throws Exception {
         String responseString = this.mockMvc
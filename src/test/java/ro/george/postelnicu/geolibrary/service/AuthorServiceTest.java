@@ -10,13 +10,17 @@ import ro.george.postelnicu.geolibrary.dto.author.AuthorsDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyLinkedException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Author;
 import ro.george.postelnicu.geolibrary.model.Book;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
@@ -40,27 +44,32 @@ class AuthorServiceTest extends AbstractIntegrationTest {
     void createBulk_isSuccessful() {
         AuthorsDto dto = new AuthorsDto();
         dto.setAuthors(Set.of(LINDA, BART));
-        List<Author> bulk = service.createBulk(dto);
+        List<BulkItem> bulk = new ArrayList<>(service.createBulk(dto));
 
-        bulk.sort(Comparator.comparing(Author::getName));
+        bulk.sort(Comparator.comparing(BulkItem::name));
         assertEquals(2, bulk.size());
-        assertNotNull(bulk.get(0).getId());
-        assertNotNull(bulk.get(1).getId());
-        assertEquals(BART, bulk.get(0).getName());
-        assertEquals(LINDA, bulk.get(1).getName());
+        assertNotNull(bulk.get(0).id());
+        assertNotNull(bulk.get(1).id());
+        assertEquals(BART, bulk.get(0).name());
+        assertEquals(LINDA, bulk.get(1).name());
+        assertTrue(bulk.get(0).created());
+        assertTrue(bulk.get(1).created());
     }
 
     @Test
-    void createBulk_throwsException_whenOneAuthorExistsCaseInsensitive() {
+    void createBulk_reportsExisting_whenOneAuthorExistsCaseInsensitive() {
         AuthorsDto dto = new AuthorsDto();
         dto.setAuthors(Set.of(LINDA, BART));
         service.createBulk(dto);
 
-        AuthorsDto fail = new AuthorsDto();
-        fail.setAuthors(Set.of(BART.toUpperCase()));
-        EntityAlreadyExistException ex = assertThrows(EntityAlreadyExistException.class, () -> service.createBulk(fail));
+        AuthorsDto next = new AuthorsDto();
+        next.setAuthors(Set.of(BART.toUpperCase(), KADI));
+        Map<String, BulkItem> bulk = service.createBulk(next).stream()
+                .collect(Collectors.toMap(BulkItem::name, Function.identity()));
 
-        assertEquals(String.format(ENTITY_ALREADY_HAS_A, AUTHOR, BART), ex.getMessage());
+        assertEquals(Set.of(BART, KADI), bulk.keySet());
+        assertFalse(bulk.get(BART).created());
+        assertTrue(bulk.get(KADI).created());
     }
 
     @Test
@@ -131,6 +140,16 @@ class AuthorServiceTest extends AbstractIntegrationTest {
         assertEquals(KADI, update.getName());
     }
 
+    @Test
+    void update_keepsTheNormalizedNameInSync() {
+        Author linda = service.create(new AuthorDto(LINDA));
+        service.update(linda.getId(), new AuthorDto(KADI));
+
+        Author kadi = service.createIfNotExisting(new AuthorDto(KADI.toUpperCase()));
+        assertEquals(linda.getId(), kadi.getId());
+        assertNotEquals(linda.getId(), service.create(new AuthorDto(LINDA)).getId());
+    }
+
     @Test
     void update_throwsException_whenIdDoesntExist() {
         EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> service.update(ID_NOT_FOUND, new AuthorDto(BART)));
@@ -166,6 +185,23 @@ class AuthorServiceTest extends AbstractIntegrationTest {
         assertEquals(String.format(CANNOT_FIND_ENTITY_ID, AUTHOR, ID_NOT_FOUND), ex.getMessage());
     }
 
+    @Test
+    void countBooks_followsTheBooksLinkedToTheAuthor() {
+        Book landscapes = bookService.create(landscapesOfIdentity());
+        Book conflicts = bookService.create(conflictsAndAdaptations());
+        Long kaja = service.createIfNotExisting(new AuthorDto(KAJA)).getId();
+        assertEquals(2, service.countBooks(kaja));
+
+        BookDto withoutKaja = conflictsAndAdaptations();
+        withoutKaja.setAuthors(Set.of("Anu Allas"));
+        bookService.update(conflicts.getId(), withoutKaja);
+        assertEquals(1, service.countBooks(kaja));
+
+        bookService.delete(landscapes.getId());
+        assertEquals(0, service.countBooks(kaja));
+        service.delete(kaja);
+    }
+
     @Test
     void delete_throwsException_whenBooksHaveThisAuthorLinked() {
         BookDto bookInEnglish = landscapesOfIdentity();
@@ -0,0 +1,106 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+import ro.george.postelnicu.geolibrary.model.ImportFormat;
+import ro.george.postelnicu.geolibrary.util.CsvReader;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+import static ro.george.postelnicu.geolibrary.service.BookExportService.CSV_HEADER;
+
+@TestPropertySource(properties = "library.export.batch-size=3")
+class BookExportServiceTest extends AbstractIntegrationTest {
+    private final BookExportService service;
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+    private Book landscapes;
+    private Book houses;
+
+    @Autowired
+    BookExportServiceTest(BookExportService service, BookService bookService, ObjectMapper objectMapper) {
+        this.service = service;
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        landscapes = bookService.create(landscapesOfIdentity());
+        bookService.create(conflictsAndAdaptations());
+        bookService.create(oneHundredStepsThrough20thCenturyEstonianArchitecture());
+        houses = bookService.create(oneHundredFiftyHouses());
+    }
+
+    @Test
+    void export_writesEveryBookInIdOrder_acrossBatches_whenGivenCsv() throws Exception {
+        StringWriter out = new StringWriter();
+
+        assertEquals(4, service.export(getBSC_byPublisher(null), ImportFormat.CSV, out));
+
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new StringReader(out.toString()))) {
+            for (List<String> fields = csv.next(); fields != null; fields = csv.next()) {
+                records.add(fields);
+            }
+        }
+        assertEquals(CSV_HEADER, records.getFirst());
+        assertEquals(5, records.size());
+        assertEquals(landscapes.getId().toString(), records.get(1).get(0));
+        assertEquals(houses.getId().toString(), records.get(4).get(0));
+        assertEquals(LANDSCAPES_OF_IDENTITY, records.get(1).get(1));
+        assertEquals(Set.of(BART, KADI, KAJA, LINDA), Set.of(records.get(1).get(11).split("\\|")));
+    }
+
+    @Test
+    void export_writesOnlyTheMatchingBooks_whenGivenNdjson() throws Exception {
+        StringWriter out = new StringWriter();
+
+        assertEquals(estonianArtBookNames().size(),
+                service.export(getBSC_byPublisher(ART_MUSEUM_OF_ESTONIA), ImportFormat.NDJSON, out));
+
+        Set<String> names = new HashSet<>();
+        for (String line : out.toString().lines().toList()) {
+            names.add(objectMapper.readValue(line, BookResponseDto.class).getName());
+        }
+        assertEquals(estonianArtBookNames(), names);
+    }
+
+    @Test
+    void export_holdsNoTransaction_whileWritingABatch() throws Exception {
+        List<Boolean> inTransaction = new ArrayList<>();
+        StringWriter out = new StringWriter() {
+            @Override
+            public void flush() {
+                inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            }
+        };
+
+        service.export(getBSC_byPublisher(null), ImportFormat.NDJSON, out);
+
+        // two batches of at most three books, then the final flush
+        assertEquals(List.of(false, false, false), inTransaction);
+    }
+
+    private static BookSearchCriteria getBSC_byPublisher(String publisher) {
+        return new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                publisher, null, null,
+                null, null, null, null, null);
+    }
+}
@@ -0,0 +1,155 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
+import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
+import ro.george.postelnicu.geolibrary.model.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+import static ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException.ENTITY_ALREADY_HAS_A;
+import static ro.george.postelnicu.geolibrary.exception.EntityValidationException.ENTITY_VALIDATION_FAILURE;
+import static ro.george.postelnicu.geolibrary.model.EntityName.BOOK;
+
+@TestPropertySource(properties = "library.import.chunk-size=2")
+class BookImportServiceTest extends AbstractIntegrationTest {
+    private final BookImportService service;
+    private final BookSearchService searchService;
+    private final KeywordService keywordService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    BookImportServiceTest(BookImportService service, BookSearchService searchService, KeywordService keywordService,
+                          ObjectMapper objectMapper) {
+        this.service = service;
+        this.searchService = searchService;
+        this.keywordService = keywordService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void importBooks_shouldReportEveryRecord_whenSomeAreInvalid() throws IOException {
+        BookDto wrongIsbn = oneHundredStepsThrough20thCenturyEstonianArchitecture();
+        wrongIsbn.setIsbn("ISBN 978-9949-9078-6-2");
+        String input = String.join("\n",
+                json(landscapesOfIdentity()),
+                json(conflictsAndAdaptations()),
+                "",
+                json(wrongIsbn),
+                json(landscapesOfIdentity()),
+                "{not json",
+                json(oneHundredFiftyHouses()));
+        List<BookImportResult> results = new ArrayList<>();
+
+        BookImportSummary summary = service.importBooks(new StringReader(input), ImportFormat.NDJSON, results::add);
+
+        assertEquals(new BookImportSummary(3, 3), summary);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L, 7L), results.stream().map(BookImportResult::line).toList());
+        assertEquals(List.of(false, false, true, true, true, false),
+                results.stream().map(BookImportResult::hasError).toList());
+        assertEquals(String.format(ENTITY_VALIDATION_FAILURE, BOOK, "Invalid ISBN check digit"), results.get(2).error());
+        assertEquals(String.format(ENTITY_ALREADY_HAS_A, BOOK, LANDSCAPES_OF_IDENTITY), results.get(3).error());
+
+        Map<String, BookResponseDto> books = importedBooks();
+        assertEquals(Set.of(LANDSCAPES_OF_IDENTITY, CONFLICTS_AND_ADAPTATIONS, HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE),
+                books.keySet());
+        assertEquals(results.get(0).id(), books.get(LANDSCAPES_OF_IDENTITY).getId());
+        assertEquals(Set.of(LINDA, KADI, BART, KAJA),
+                names(books.get(LANDSCAPES_OF_IDENTITY).getAuthors(), AuthorResponseDto::getName));
+        assertEquals(estonianArtKeywords(),
+                names(books.get(CONFLICTS_AND_ADAPTATIONS).getKeywords(), KeywordResponseDto::getName));
+        assertEquals(Set.of(ENGLISH), names(books.get(HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE).getLanguages(),
+                LanguageResponseDto::getName));
+        Long art = books.get(LANDSCAPES_OF_IDENTITY).getKeywords().stream()
+                .filter(keyword -> keyword.getName().equals(ART))
+                .findFirst().orElseThrow().getId();
+        assertEquals(2, keywordService.countBooks(art));
+    }
+
+    @Test
+    void importBooks_shouldRejectDuplicates_withinTheSameChunk() throws IOException {
+        BookDto sameIsbn = conflictsAndAdaptations();
+        sameIsbn.setIsbn(landscapesOfIdentity().getIsbn());
+        String input = json(landscapesOfIdentity()) + "\n" + json(sameIsbn);
+        List<BookImportResult> results = new ArrayList<>();
+
+        BookImportSummary summary = service.importBooks(new StringReader(input), ImportFormat.NDJSON, results::add);
+
+        assertEquals(new BookImportSummary(1, 1), summary);
+        assertTrue(results.get(1).error().contains(CONFLICTS_AND_ADAPTATIONS));
+        assertEquals(Set.of(LANDSCAPES_OF_IDENTITY), importedBooks().keySet());
+    }
+
+    @Test
+    void importBooks_shouldOnlyLoseTheFailingRecord_whenTheDatabaseRejectsAChunk() throws IOException {
+        BookDto tooLong = conflictsAndAdaptations();
+        tooLong.setName(LOREM_IPSUM.repeat(30));
+        tooLong.setFullTitle(null);
+        String input = json(landscapesOfIdentity()) + "\n" + json(tooLong);
+        List<BookImportResult> results = new ArrayList<>();
+
+        BookImportSummary summary = service.importBooks(new StringReader(input), ImportFormat.NDJSON, results::add);
+
+        assertEquals(new BookImportSummary(1, 1), summary);
+        assertFalse(results.get(0).hasError());
+        assertTrue(results.get(1).hasError());
+        assertEquals(Set.of(LANDSCAPES_OF_IDENTITY), importedBooks().keySet());
+    }
+
+    @Test
+    void importBooks_shouldReadCsv_withQuotedAndMultiValueFields() throws IOException {
+        String input = """
+                name,fullTitle,isbn,status,cover,publishYear,pages,authors,keywords,languages
+                Conflicts and adaptations,"Conflicts and Adaptations, ""Estonian"" Art",ISBN 978-9949-687-44-2,HAVE,HARDCOVER,2023,111,Anu Allas|Kaja Kahrik,Art,English|Estonian
+                Landscapes of Identity,,ISBN 978-9949-687-32-9,LOST,,,,,,
+                Broken,,ISBN 978-9949-687-32-9,UNKNOWN,,,,,,
+                """;
+        List<BookImportResult> results = new ArrayList<>();
+
+        BookImportSummary summary = service.importBooks(new StringReader(input), ImportFormat.CSV, results::add);
+
+        assertEquals(new BookImportSummary(2, 1), summary);
+        assertEquals(List.of(2L, 3L, 4L), results.stream().map(BookImportResult::line).toList());
+        BookResponseDto conflicts = importedBooks().get(CONFLICTS_AND_ADAPTATIONS);
+        assertEquals("Conflicts and Adaptations, \"Estonian\" Art", conflicts.getFullTitle());
+        assertEquals(CoverType.HARDCOVER, conflicts.getCover());
+        assertEquals(2023, conflicts.getPublishYear());
+        assertEquals(Set.of("Anu Allas", KAJA), names(conflicts.getAuthors(), AuthorResponseDto::getName));
+        assertEquals(Set.of(ENGLISH, ESTONIAN), names(conflicts.getLanguages(), LanguageResponseDto::getName));
+        assertEquals(StatusType.LOST, importedBooks().get(LANDSCAPES_OF_IDENTITY).getStatus());
+    }
+
+    private String json(BookDto book) throws IOException {
+        return objectMapper.writeValueAsString(book);
+    }
+
+    private Map<String, BookResponseDto> importedBooks() {
+        BookSearchCriteria all = new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, null,
+                null, null, null, null, null);
+        return searchService.searchViews(all, PageRequest.of(0, 20), BookField.ALL).stream()
+                .collect(Collectors.toMap(BookResponseDto::getName, Function.identity()));
+    }
+
+    private static <T> Set<String> names(Set<T> items, Function<T, String> name) {
+        return items.stream().map(name).collect(Collectors.toSet());
+    }
+}
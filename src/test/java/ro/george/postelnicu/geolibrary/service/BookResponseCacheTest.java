@@ -0,0 +1,108 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
+import ro.george.postelnicu.geolibrary.model.Keyword;
+import ro.george.postelnicu.geolibrary.service.BookResponseCache.SerializedBook;
+
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+
+@TestPropertySource(properties = {"library.book.cache.max-size=2", "library.book.cache.gzip-min-size=1"})
+class BookResponseCacheTest extends AbstractIntegrationTest {
+    private final BookResponseCache cache;
+    private final BookService bookService;
+    private final KeywordService keywordService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private Book landscapes;
+
+    @Autowired
+    BookResponseCacheTest(BookResponseCache cache, BookService bookService, KeywordService keywordService,
+                          CatalogVersion catalogVersion, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.bookService = bookService;
+        this.keywordService = keywordService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        landscapes = bookService.create(landscapesOfIdentity());
+    }
+
+    @Test
+    void get_shouldServeTheSameBytes_withoutReadingTheBookAgain() throws Exception {
+        double hits = count("hit");
+        SerializedBook first = cache.get(landscapes.getId(), () -> bookService.readView(landscapes.getId()));
+
+        SerializedBook second = cache.get(landscapes.getId(), () -> fail("the book should have been cached"));
+
+        assertSame(first, second);
+        assertEquals(hits + 1, count("hit"));
+        assertEquals(landscapes.getVersion(), second.version());
+        assertEquals(LANDSCAPES_OF_IDENTITY, objectMapper.readValue(second.json(), BookResponseDto.class).getName());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(second.gzip()))) {
+            assertArrayEquals(second.json(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void get_shouldReadTheBookAgain_afterItsRelationsOrTheirNamesChange() throws Exception {
+        Long id = landscapes.getId();
+        cache.get(id, () -> bookService.readView(id));
+
+        bookService.addRelation(id, BookRelation.KEYWORDS, FINANCE, version -> true);
+        assertTrue(readKeywordNames(id).contains(FINANCE));
+
+        Keyword finance = keywordService.createAllIfNotExisting(Set.of(FINANCE)).get(FINANCE);
+        keywordService.update(finance.getId(), new KeywordDto("Economics"));
+        Set<String> names = readKeywordNames(id);
+        assertTrue(names.contains("Economics"));
+        assertFalse(names.contains(FINANCE));
+    }
+
+    @Test
+    void get_shouldNotStoreABookRead_whileAWriteWasInFlight() {
+        Long id = landscapes.getId();
+        cache.get(id, () -> {
+            BookResponseDto book = bookService.readView(id);
+            catalogVersion.markWrite();
+            return book;
+        });
+        double misses = count("miss");
+
+        cache.get(id, () -> bookService.readView(id));
+
+        assertEquals(misses + 1, count("miss"));
+    }
+
+    private Set<String> readKeywordNames(Long id) throws Exception {
+        SerializedBook book = cache.get(id, () -> bookService.readView(id));
+        return objectMapper.readValue(book.json(), BookResponseDto.class).getKeywords().stream()
+                .map(KeywordResponseDto::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "book-response").tag("result", result).counter().count();
+    }
+}
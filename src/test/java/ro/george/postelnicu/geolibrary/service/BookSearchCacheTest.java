@@ -0,0 +1,126 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+import static ro.george.postelnicu.geolibrary.model.BookField.SUMMARY;
+
+@TestPropertySource(properties = {"library.search.cache.max-size=2", "library.search.index.enabled=true"})
+class BookSearchCacheTest extends AbstractIntegrationTest {
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+    private final BookSearchService searchService;
+    private final BookService bookService;
+    private final BookSearchIndex index;
+    private final CatalogVersion catalogVersion;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    BookSearchCacheTest(BookSearchService searchService, BookService bookService, BookSearchIndex index,
+                        CatalogVersion catalogVersion, MeterRegistry meterRegistry) {
+        this.searchService = searchService;
+        this.bookService = bookService;
+        this.index = index;
+        this.catalogVersion = catalogVersion;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        // the cleanup script bypasses the services, so whatever was cached before it is outdated
+        catalogVersion.markWrite();
+        bookService.create(landscapesOfIdentity());
+        bookService.create(conflictsAndAdaptations());
+    }
+
+    @Test
+    void search_shouldAnswerEquivalentCriteriaFromTheCache() {
+        double hits = count("hit");
+        double misses = count("miss");
+
+        Page<BookResponseDto> first = searchService.searchViews(getBSC(Set.of(ENGLISH, ESTONIAN), ART_MUSEUM_OF_ESTONIA),
+                FIRST_PAGE, SUMMARY);
+        Page<BookResponseDto> second = searchService.searchViews(
+                getBSC(Set.of("estonian", "ENGLISH"), ART_MUSEUM_OF_ESTONIA.toLowerCase()), FIRST_PAGE, SUMMARY);
+
+        assertEquals(hits + 1, count("hit"));
+        assertEquals(misses + 1, count("miss"));
+        assertEquals(getNameOfBooks(first), getNameOfBooks(second));
+    }
+
+    @Test
+    void search_shouldNotServeResultsOlderThanTheLastWrite() {
+        BookSearchCriteria english = getBSC(Set.of(ENGLISH), null);
+        assertEquals(estonianArtBookNames(), getNameOfBooks(searchService.searchViews(english, FIRST_PAGE, SUMMARY)));
+
+        bookService.create(oneHundredFiftyHouses());
+        double misses = count("miss");
+
+        assertEquals(Set.of(LANDSCAPES_OF_IDENTITY, CONFLICTS_AND_ADAPTATIONS, HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE),
+                getNameOfBooks(searchService.searchViews(english, FIRST_PAGE, SUMMARY)));
+        assertEquals(misses + 1, count("miss"));
+    }
+
+    @Test
+    void search_shouldFindAWriteRightAway_whenTheIndexAnswersTheQuery() {
+        index.rebuild();
+        BookSearchCriteria villas = getBSC_byQuery("villas");
+        assertEquals(Set.of(), getNameOfBooks(searchService.searchViews(villas, FIRST_PAGE, SUMMARY)));
+
+        BookDto houses = oneHundredFiftyHouses();
+        houses.setDescription("Modernist villas");
+        bookService.create(houses);
+
+        assertEquals(Set.of(HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE),
+                getNameOfBooks(searchService.searchViews(villas, FIRST_PAGE, SUMMARY)));
+        assertEquals(Set.of(HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE),
+                getNameOfBooks(searchService.searchViews(villas, FIRST_PAGE, SUMMARY)));
+    }
+
+    @Test
+    void search_shouldEvictTheLeastRecentlyUsedSearch() {
+        double evictions = meterRegistry.get("cache.evictions").tag("cache", "book-search").counter().count();
+
+        searchService.searchViews(getBSC(Set.of(ENGLISH), null), FIRST_PAGE, SUMMARY);
+        searchService.searchViews(getBSC(Set.of(ESTONIAN), null), FIRST_PAGE, SUMMARY);
+        searchService.searchViews(getBSC(Set.of(FRENCH), null), FIRST_PAGE, SUMMARY);
+
+        assertEquals(evictions + 1, meterRegistry.get("cache.evictions").tag("cache", "book-search").counter().count());
+        assertEquals(2, meterRegistry.get("cache.size").tag("cache", "book-search").gauge().value());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "book-search").tag("result", result).counter().count();
+    }
+
+    private static Set<String> getNameOfBooks(Page<BookResponseDto> books) {
+        return books.stream().map(BookResponseDto::getName).collect(Collectors.toSet());
+    }
+
+    private static BookSearchCriteria getBSC(Set<String> languages, String publisher) {
+        return new BookSearchCriteria(null, null, null, null, null,
+                null, null, languages,
+                publisher, null, null,
+                null, null, null, null, null);
+    }
+
+    private static BookSearchCriteria getBSC_byQuery(String query) {
+        return new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, null,
+                null, null, null, query, null);
+    }
+}
@@ -0,0 +1,113 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+import static ro.george.postelnicu.geolibrary.model.BookField.SUMMARY;
+
+@TestPropertySource(properties = "library.search.index.enabled=true")
+class BookSearchIndexTest extends AbstractIntegrationTest {
+    private final BookSearchIndex index;
+    private final BookSearchService searchService;
+    private final BookService bookService;
+    private Book landscapes;
+    private Book conflicts;
+    private Book architecture;
+    private Book houses;
+
+    @Autowired
+    BookSearchIndexTest(BookSearchIndex index, BookSearchService searchService, BookService bookService) {
+        this.index = index;
+        this.searchService = searchService;
+        this.bookService = bookService;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        landscapes = bookService.create(landscapesOfIdentity());
+        conflicts = bookService.create(conflictsAndAdaptations());
+        architecture = bookService.create(oneHundredStepsThrough20thCenturyEstonianArchitecture());
+        houses = bookService.create(oneHundredFiftyHouses());
+        index.rebuild();
+    }
+
+    @Test
+    void search_shouldRankBooksByTheFieldsTheyMatch() {
+        // the books created before the rebuild are replayed once it is done
+        await().until(index::isReady);
+        assertEquals(List.of(architecture.getId(), landscapes.getId(), conflicts.getId()), index.search("estonian"));
+        assertEquals(List.of(landscapes.getId()), index.search("art LANDSC"));
+        assertEquals(List.of(), index.search(NOT_FOUND));
+    }
+
+    @Test
+    void search_shouldMatchTheSameBooks_asTheDatabaseQuery() {
+        PageRequest unsorted = PageRequest.of(0, 10);
+        PageRequest sorted = PageRequest.of(0, 10, Sort.by("id"));
+
+        // sorting sends the query to the database instead of the index
+        for (String query : List.of("estonian", "architecture", "lorem art", KADI, LANNOO)) {
+            assertEquals(getIds(searchService.searchViews(getBSC_byQuery(query), sorted, SUMMARY)),
+                    getIds(searchService.searchViews(getBSC_byQuery(query), unsorted, SUMMARY)), query);
+        }
+    }
+
+    @Test
+    void search_shouldPageTheIndexHits() {
+        Page<BookResponseDto> page = searchService.searchViews(getBSC_byQuery("estonian"), PageRequest.of(1, 2),
+                SUMMARY);
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+    }
+
+    @Test
+    void search_shouldFollowCommittedWrites() {
+        BookDto updated = oneHundredFiftyHouses();
+        updated.setDescription("Modernist villas");
+        bookService.update(houses.getId(), updated);
+        await().untilAsserted(() -> assertEquals(List.of(houses.getId()), index.search("villas")));
+
+        bookService.delete(architecture.getId());
+        await().untilAsserted(() -> assertEquals(List.of(landscapes.getId(), conflicts.getId()),
+                index.search("estonian")));
+    }
+
+    @Test
+    void search_shouldFindACommittedWrite_beforeTheIndexHasAppliedIt() {
+        BookDto updated = oneHundredFiftyHouses();
+        updated.setDescription("Modernist villas");
+        bookService.update(houses.getId(), updated);
+
+        assertEquals(Set.of(houses.getId()), getIds(searchService.searchViews(getBSC_byQuery("villas"),
+                PageRequest.of(0, 10), SUMMARY)));
+    }
+
+    private static Set<Long> getIds(Page<BookResponseDto> books) {
+        return books.stream().map(BookResponseDto::getId).collect(Collectors.toSet());
+    }
+
+    private static BookSearchCriteria getBSC_byQuery(String query) {
+        return new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, null,
+                null, null, null, query, null);
+    }
+}
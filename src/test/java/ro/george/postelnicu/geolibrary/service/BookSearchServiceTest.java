@@ -4,18 +4,33 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
-import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
+import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
+import ro.george.postelnicu.geolibrary.model.BookFacets;
+import ro.george.postelnicu.geolibrary.model.BookField;
 import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
 import ro.george.postelnicu.geolibrary.model.CoverType;
+import ro.george.postelnicu.geolibrary.model.EstimatedPage;
+import ro.george.postelnicu.geolibrary.model.MatchMode;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
 import static ro.george.postelnicu.geolibrary.model.CoverType.*;
+import static ro.george.postelnicu.geolibrary.model.StatusType.HAVE;
 import static ro.george.postelnicu.geolibrary.util.StringUtil.SPACE;
 import static ro.george.postelnicu.geolibrary.util.StringUtil.WILDCARD;
 
@@ -110,6 +125,24 @@ class BookSearchServiceTest extends AbstractIntegrationTest {
         noResultsFound(notFound);
     }
 
+    @Test
+    void search_shouldFindBooks_whenMatchingAnyOrAllRelations() {
+        Set<String> architecture = Set.of("Architecture", "20th Century Architecture");
+        Set<String> bothArchitectureBooks = Set.of(_20TH_CENTURY_ESTONIAN_ARCHITECTURE,
+                HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE);
+        resultsFound(getBSC_byKeywords(architecture, MatchMode.ANY), bothArchitectureBooks);
+        resultsFound(getBSC_byKeywords(architecture, MatchMode.ALL), bothArchitectureBooks);
+
+        Set<String> worldArchitecture = Set.of("Architecture", "World Architecture");
+        resultsFound(getBSC_byKeywords(worldArchitecture, MatchMode.ANY), bothArchitectureBooks);
+        resultsFound(getBSC_byKeywords(worldArchitecture, MatchMode.ALL), housesYouNeedToVisit());
+
+        Set<String> artOrArchitecture = Set.of(ART, "World Architecture", NOT_FOUND);
+        resultsFound(getBSC_byKeywords(artOrArchitecture, MatchMode.ANY),
+                Set.of(LANDSCAPES_OF_IDENTITY, CONFLICTS_AND_ADAPTATIONS, HOUSES_YOU_NEED_TO_VISIT_BEFORE_YOU_DIE));
+        noResultsFound(getBSC_byKeywords(artOrArchitecture, MatchMode.ALL));
+    }
+
     @Test
     void search_shouldFindBooks_whenFilteringByLanguages() {
         BookSearchCriteria englishAndEstonian = getBSC_byKLanguages(bothLanguages());
@@ -194,94 +227,236 @@ class BookSearchServiceTest extends AbstractIntegrationTest {
         noResultsFound(noBarcodeFound);
     }
 
+    @Test
+    void search_shouldFindBooks_whenFilteringByQuery() {
+        BookSearchCriteria estonianArt = getBSC_byQuery("estonian ART");
+        resultsFound(estonianArt, estonianArtBookNames());
+
+        BookSearchCriteria prefix = getBSC_byQuery("archit");
+        resultsFound(prefix, Set.of(_20TH_CENTURY_ESTONIAN_ARCHITECTURE));
+
+        BookSearchCriteria ignoredPunctuation = getBSC_byQuery("*soviet* (era)");
+        resultsFound(ignoredPunctuation, Set.of(CONFLICTS_AND_ADAPTATIONS));
+
+        BookSearchCriteria notFound = getBSC_byQuery(NOT_FOUND);
+        noResultsFound(notFound);
+    }
+
+    @Test
+    void search_shouldFindBooks_whenQueryIsCombinedWithOtherFilters() {
+        BookSearchCriteria estonianArtFrom2023 = new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, CONFLICTS_PUBLISH_YEAR,
+                null, null, null, "estonian art", null);
+        resultsFound(estonianArtFrom2023, Set.of(CONFLICTS_AND_ADAPTATIONS));
+    }
+
+    @Test
+    void searchSliceViews_shouldTellIfThereIsANextPage_withoutCounting() {
+        BookSearchCriteria estonianBooks = getBSC_byCoverType(SOFTCOVER_WITH_DUST_JACKET);
+
+        Slice<BookResponseDto> firstSlice = service.searchSliceViews(estonianBooks, PageRequest.of(0, 2),
+                BookField.SUMMARY);
+        assertEquals(2, firstSlice.getNumberOfElements());
+        assertTrue(firstSlice.hasNext());
+
+        Slice<BookResponseDto> lastSlice = service.searchSliceViews(estonianBooks, PageRequest.of(1, 2),
+                BookField.SUMMARY);
+        assertEquals(1, lastSlice.getNumberOfElements());
+        assertFalse(lastSlice.hasNext());
+        assertEquals(estonianBookNames(), Stream.concat(firstSlice.stream(), lastSlice.stream())
+                .map(BookResponseDto::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void searchViewsWithEstimatedCount_shouldCapTheTotal_untilTheLastPage() {
+        BookSearchCriteria estonianBooks = getBSC_byCoverType(SOFTCOVER_WITH_DUST_JACKET);
+
+        EstimatedPage<BookResponseDto> firstPage = service.searchViewsWithEstimatedCount(estonianBooks,
+                PageRequest.of(0, 1), BookField.SUMMARY);
+        assertEquals(2, firstPage.getTotalElements());
+        assertFalse(firstPage.isExact());
+
+        EstimatedPage<BookResponseDto> lastPage = service.searchViewsWithEstimatedCount(estonianBooks,
+                PageRequest.of(2, 1), BookField.SUMMARY);
+        assertEquals(3, lastPage.getTotalElements());
+        assertTrue(lastPage.isExact());
+
+        EstimatedPage<BookResponseDto> housesPage = service.searchViewsWithEstimatedCount(getBSC_byCoverType(HARDCOVER),
+                SIZE, BookField.SUMMARY);
+        assertEquals(1, housesPage.getTotalElements());
+        assertTrue(housesPage.isExact());
+    }
+
+    @Test
+    void searchViewsWithEstimatedCount_shouldCountUpToTheLimit_whenSearchingByQueryAndRelations() {
+        BookSearchCriteria estonianEnglishBooks = new BookSearchCriteria(null, null, null, null, null,
+                null, null, Set.of(ENGLISH),
+                null, null, null,
+                null, null, null, "estonian", null);
+
+        EstimatedPage<BookResponseDto> firstPage = service.searchViewsWithEstimatedCount(estonianEnglishBooks,
+                PageRequest.of(0, 1), BookField.SUMMARY);
+
+        assertEquals(2, firstPage.getTotalElements());
+        assertFalse(firstPage.isExact());
+    }
+
+    @Test
+    void searchViews_shouldOrderThePage_likeTheSlice() {
+        BookSearchCriteria estonianBooks = getBSC_byCoverType(SOFTCOVER_WITH_DUST_JACKET);
+
+        Page<BookResponseDto> page = service.searchViews(estonianBooks, SIZE, BookField.SUMMARY);
+        Slice<BookResponseDto> slice = service.searchSliceViews(estonianBooks, SIZE, BookField.SUMMARY);
+
+        List<Long> ids = page.getContent().stream().map(BookResponseDto::getId).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals(ids, slice.getContent().stream().map(BookResponseDto::getId).toList());
+    }
+
+    @Test
+    void searchViews_shouldProjectTheBooksOfThePage_withTheirRelations() {
+        Map<String, BookDto> created = Stream.of(landscapesOfIdentity(), conflictsAndAdaptations(),
+                        oneHundredStepsThrough20thCenturyEstonianArchitecture())
+                .collect(Collectors.toMap(BookDto::getName, Function.identity()));
+
+        Page<BookResponseDto> views = service.searchViews(getBSC_byCoverType(SOFTCOVER_WITH_DUST_JACKET), SIZE,
+                BookField.ALL);
+
+        assertEquals(created.keySet(), getNameOfBooks(views));
+        assertEquals(views.getContent().stream().map(BookResponseDto::getId).sorted().toList(),
+                views.getContent().stream().map(BookResponseDto::getId).toList());
+        for (BookResponseDto view : views) {
+            BookDto book = created.get(view.getName());
+            assertEquals(book.getAuthors(), names(view.getAuthors(), AuthorResponseDto::getName));
+            assertEquals(book.getKeywords(), names(view.getKeywords(), KeywordResponseDto::getName));
+            assertEquals(book.getLanguages(), names(view.getLanguages(), LanguageResponseDto::getName));
+        }
+    }
+
+    @Test
+    void facets_shouldCountTheMatchingBooks_perFilterValue() {
+        BookFacets facets = service.facets(getBSC_byKLanguages(Set.of(ENGLISH)));
+
+        assertEquals(List.of(SOFTCOVER_WITH_DUST_JACKET, HARDCOVER), List.copyOf(facets.coverTypes().keySet()));
+        assertEquals(Map.of(SOFTCOVER_WITH_DUST_JACKET, 3L, HARDCOVER, 1L), facets.coverTypes());
+        assertEquals(Map.of(HAVE, 4L), facets.statuses());
+        assertEquals(Map.of(ENGLISH, 4L, ESTONIAN, 1L), facets.languages());
+        assertEquals(List.of("20th Century Architecture", ARCHITECTURE, ART, "Estonian Art", "Kumu Art Museum",
+                "Estonian Architecture", "World Architecture"), List.copyOf(facets.keywords().keySet()));
+        assertEquals(Map.of(ART_MUSEUM_OF_ESTONIA, 2L, ESTONIAN_MUSEUM_OF_ARCHITECTURE, 1L, LANNOO, 1L),
+                facets.publishers());
+        assertEquals(List.of(2013, 2021, CONFLICTS_PUBLISH_YEAR), List.copyOf(facets.publishYears().keySet()));
+        assertEquals(2L, facets.publishYears().get(2021));
+
+        BookFacets hardcover = service.facets(getBSC_byCoverType(HARDCOVER));
+        assertEquals(Map.of(ENGLISH, 1L), hardcover.languages());
+        assertEquals(Map.of(LANNOO, 1L), hardcover.publishers());
+    }
+
     private static BookSearchCriteria getBSC_byName(String name) {
         return new BookSearchCriteria(name, null, null, null, null,
                 null, null, null,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byFullTitle(String fullTitle) {
         return new BookSearchCriteria(null, fullTitle, null, null, null,
                 null, null, null,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byDescription(String description) {
         return new BookSearchCriteria(null, null, description, null, null,
                 null, null, null,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, null);
     }
     private static BookSearchCriteria getBSC_byIsbnOrBarcode(String isbn, String barcode) {
         return new BookSearchCriteria(null, null, null, isbn, barcode,
                 null, null, null,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byPublisher(String publisher) {
         return new BookSearchCriteria(null, null, null, null, null,
                 null, null, null,
                 publisher, null, null,
-                null, null, null);
+                null, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byMinMaxPublishYear(Integer minYear, Integer maxYear) {
         return new BookSearchCriteria(null, null, null, null, null,
                 null, null, null,
                 null, null, minYear,
-                maxYear, null, null);
+                maxYear, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byMinMaxPages(Integer minPages, Integer maxPages) {
         return new BookSearchCriteria(null, null, null, null, null,
                 null, null, null,
                 null, null, null,
-                null, minPages, maxPages);
+                null, minPages, maxPages, null, null);
     }
 
     private static BookSearchCriteria getBSC_byCoverType(CoverType coverType) {
         return new BookSearchCriteria(null, null, null, null, null,
                 null, null, null,
                 null, coverType, null,
-                null, null, null);
+                null, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byAuthors(Set<String> authors) {
         return new BookSearchCriteria(null, null, null, null, null,
                 authors, null, null,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, null);
     }
 
     private static BookSearchCriteria getBSC_byKeywords(Set<String> keywords) {
+        return getBSC_byKeywords(keywords, null);
+    }
+
+    private static BookSearchCriteria getBSC_byKeywords(Set<String> keywords, MatchMode relationMatch) {
         return new BookSearchCriteria(null, null, null, null, null,
                 null, keywords, null,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, relationMatch);
     }
 
     private static BookSearchCriteria getBSC_byKLanguages(Set<String> languages) {
         return new BookSearchCriteria(null, null, null, null, null,
                 null, null, languages,
                 null, null, null,
-                null, null, null);
+                null, null, null, null, null);
+    }
+
+    private static BookSearchCriteria getBSC_byQuery(String query) {
+        return new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, null,
+                null, null, null, query, null);
+    }
+
+    private static <T> Set<String> names(Set<T> items, Function<T, String> name) {
+        return items.stream().map(name).collect(Collectors.toSet());
     }
 
-    private static Set<String> getNameOfBooks(Page<Book> books) {
-        return books.stream().map(Book::getName).collect(Collectors.toSet());
+    private static Set<String> getNameOfBooks(Page<BookResponseDto> books) {
+        return books.stream().map(BookResponseDto::getName).collect(Collectors.toSet());
     }
 
     private void resultsFound(BookSearchCriteria bookSearchCriteria, Set<String> expectedBookNames) {
-        Page<Book> books = service.search(bookSearchCriteria, SIZE);
+        Page<BookResponseDto> books = service.searchViews(bookSearchCriteria, SIZE, BookField.SUMMARY);
         assertEquals(expectedBookNames.size(), books.getTotalElements());
         assertEquals(expectedBookNames, getNameOfBooks(books));
     }
 
     private void noResultsFound(BookSearchCriteria bookSearchCriteria) {
-        Page<Book> books = service.search(bookSearchCriteria, SIZE);
+        Page<BookResponseDto> books = service.searchViews(bookSearchCriteria, SIZE, BookField.SUMMARY);
         assertEquals(0, books.getTotalElements());
     }
 }
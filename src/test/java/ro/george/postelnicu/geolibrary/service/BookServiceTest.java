@@ -1,18 +1,33 @@
 package ro.george.postelnicu.geolibrary.service;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
 import ro.george.postelnicu.geolibrary.DataCommon;
+import ro.george.postelnicu.geolibrary.dto.author.AuthorResponseDto;
 import ro.george.postelnicu.geolibrary.dto.book.BookDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookPatchDto;
+import ro.george.postelnicu.geolibrary.dto.book.BookResponseDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordResponseDto;
+import ro.george.postelnicu.geolibrary.dto.language.LanguageResponseDto;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
+import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
 import ro.george.postelnicu.geolibrary.exception.EntityValidationException;
+import ro.george.postelnicu.geolibrary.exception.EntityVersionMismatchException;
 import ro.george.postelnicu.geolibrary.model.Author;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookField;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
 import ro.george.postelnicu.geolibrary.model.Keyword;
 import ro.george.postelnicu.geolibrary.model.Language;
+import ro.george.postelnicu.geolibrary.repository.KeywordRepository;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -29,10 +44,14 @@ import static ro.george.postelnicu.geolibrary.service.BookService.NAME_IS_NOT_IN
 
 class BookServiceTest extends AbstractIntegrationTest {
     private final BookService service;
+    private final KeywordService keywordService;
+    private final KeywordRepository keywordRepository;
 
     @Autowired
-    BookServiceTest(BookService service) {
+    BookServiceTest(BookService service, KeywordService keywordService, KeywordRepository keywordRepository) {
         this.service = service;
+        this.keywordService = keywordService;
+        this.keywordRepository = keywordRepository;
     }
 
     @Test
@@ -58,6 +77,79 @@ class BookServiceTest extends AbstractIntegrationTest {
         assertEquals("9789949687329", book.getBarcode());
     }
 
+    @Test
+    void readView_isSuccessful_whenFullBookDetailsAreGiven() {
+        Book book = service.create(landscapesOfIdentity());
+
+        BookResponseDto view = service.readView(book.getId());
+
+        assertEquals(book.getId(), view.getId());
+        assertEquals(book.getVersion(), view.getVersion());
+        assertEquals(book.getFullTitle(), view.getFullTitle());
+        assertEquals(book.getDescription(), view.getDescription());
+        assertEquals(SOFTCOVER_WITH_DUST_JACKET, view.getCover());
+        assertEquals(HAVE, view.getStatus());
+        assertEquals(2021, view.getPublishYear());
+        assertEquals(111, view.getPages());
+        assertEquals(List.of(BART, KADI, KAJA, LINDA), view.getAuthors().stream().map(AuthorResponseDto::getName).toList());
+        assertEquals(Set.of("Kumu Art Museum", "Art", "Estonian Art"),
+                view.getKeywords().stream().map(KeywordResponseDto::getName).collect(Collectors.toSet()));
+        assertEquals(Set.of("English"), view.getLanguages().stream().map(LanguageResponseDto::getName).collect(Collectors.toSet()));
+        assertThrows(EntityNotFoundException.class, () -> service.readView(book.getId() + 1));
+    }
+
+    @Test
+    void readView_readsOnlyTheRequestedFields() {
+        Book book = service.create(landscapesOfIdentity());
+
+        BookResponseDto view = service.readView(book.getId(), BookField.parse("summary,keywords"));
+
+        assertEquals(book.getId(), view.getId());
+        assertEquals(book.getVersion(), view.getVersion());
+        assertEquals(LANDSCAPES_OF_IDENTITY, view.getName());
+        assertEquals(book.getIsbn(), view.getIsbn());
+        assertEquals(HAVE, view.getStatus());
+        assertEquals(Set.of("Kumu Art Museum", "Art", "Estonian Art"),
+                view.getKeywords().stream().map(KeywordResponseDto::getName).collect(Collectors.toSet()));
+        assertNull(view.getDescription());
+        assertNull(view.getFullTitle());
+        assertNull(view.getAuthors());
+        assertNull(view.getLanguages());
+    }
+
+    @Test
+    @Transactional
+    void create_doesNotLoadTheBooksOfASharedKeyword() {
+        service.create(landscapesOfIdentity());
+        service.create(conflictsAndAdaptations());
+
+        Keyword art = keywordService.createIfNotExisting(new KeywordDto(ART));
+        assertFalse(Hibernate.isInitialized(art.getBooks()));
+        assertEquals(2, keywordRepository.findBookIds(art.getId()).size());
+    }
+
+    @Test
+    void create_keepsTheBookInAHashSet_afterItIsRenamed() {
+        Book book = service.create(landscapesOfIdentity());
+        Set<Book> books = new HashSet<>(Set.of(book));
+
+        book.setName("Landscapes of Identity Revisited");
+
+        assertTrue(books.contains(book));
+        assertTrue(books.remove(book));
+    }
+
+    @Test
+    void create_spreadsBooksOverHashBuckets_andKeepsThemEqualAfterSaving() {
+        Book book = service.create(landscapesOfIdentity());
+        Book other = service.create(conflictsAndAdaptations());
+
+        assertNotEquals(book.hashCode(), other.hashCode());
+        assertNotEquals(book, other);
+        assertEquals(book, service.read(book.getId()));
+        assertEquals(book.hashCode(), service.read(book.getId()).hashCode());
+    }
+
     @Test
     void create_isSuccessful_whenTwoBooksReturnSameIdsForExternalEntities() {
         Book book1 = service.create(landscapesOfIdentity());
@@ -139,6 +231,76 @@ class BookServiceTest extends AbstractIntegrationTest {
         assertEquals(updatedDto.getName(), updatedBook.getName());
     }
 
+    @Test
+    void update_onlyChangesTheRelationsThatDiffer() {
+        Book book = service.create(landscapesOfIdentity());
+        Map<String, Long> authorIds = book.getAuthors().stream()
+                .collect(Collectors.toMap(Author::getName, Author::getId));
+
+        BookDto updatedDto = landscapesOfIdentity();
+        updatedDto.setAuthors(Set.of(LINDA.toUpperCase(), KADI, "Mari Laanemets"));
+        Book updatedBook = service.update(book.getId(), updatedDto);
+
+        assertEquals(Set.of(LINDA, KADI, "Mari Laanemets"), getAuthorNames(updatedBook.getAuthors()));
+        Map<String, Long> updatedIds = updatedBook.getAuthors().stream()
+                .collect(Collectors.toMap(Author::getName, Author::getId));
+        assertEquals(authorIds.get(LINDA), updatedIds.get(LINDA));
+        assertEquals(authorIds.get(KADI), updatedIds.get(KADI));
+        assertEquals(estonianArtKeywords(), getKeywordNames(updatedBook.getKeywords()));
+    }
+
+    @Test
+    void update_bumpsTheVersionOfTheBook_alsoWhenOneOfItsKeywordsIsRenamed() {
+        Book book = service.create(landscapesOfIdentity());
+        long version = service.readVersion(book.getId());
+
+        BookDto updatedDto = landscapesOfIdentity();
+        updatedDto.setKeywords(Set.of(FINANCE));
+        service.update(book.getId(), updatedDto);
+        assertEquals(version + 1, service.readVersion(book.getId()));
+
+        Keyword finance = keywordRepository.findByNameNorm(FINANCE.toLowerCase()).orElseThrow();
+        keywordService.update(finance.getId(), new KeywordDto("Economics"));
+        assertEquals(version + 2, service.readVersion(book.getId()));
+
+        assertThrows(EntityVersionMismatchException.class,
+                () -> service.update(book.getId(), landscapesOfIdentity(), current -> current == version));
+    }
+
+    @Test
+    void patch_checksOnlyTheGivenFields() {
+        Book book = service.create(landscapesOfIdentity());
+
+        BookPatchDto patchDto = new BookPatchDto();
+        patchDto.setName(CONFLICTS_AND_ADAPTATIONS);
+        EntityValidationException ex = assertThrows(EntityValidationException.class,
+                () -> service.patch(book.getId(), patchDto, version -> true));
+        assertEquals(String.format(ENTITY_VALIDATION_FAILURE, BOOK, NAME_IS_NOT_INCLUDED_IN_FULL_TITLE), ex.getMessage());
+
+        patchDto.setFullTitle(CONFLICTS_AND_ADAPTATIONS);
+        service.patch(book.getId(), patchDto, version -> true);
+
+        Book patched = service.read(book.getId());
+        assertEquals(CONFLICTS_AND_ADAPTATIONS, patched.getName());
+        assertEquals(landscapesOfIdentity().getIsbn(), patched.getIsbn());
+    }
+
+    @Test
+    void addRelation_movesTheBookCount_onlyWhenTheLinkChanges() {
+        Book book = service.create(landscapesOfIdentity());
+
+        service.addRelation(book.getId(), BookRelation.KEYWORDS, FINANCE, version -> true);
+        service.addRelation(book.getId(), BookRelation.KEYWORDS, FINANCE, version -> true);
+        Keyword finance = keywordRepository.findByNameNorm(FINANCE.toLowerCase()).orElseThrow();
+        assertEquals(1, keywordService.countBooks(finance.getId()));
+        assertEquals(book.getVersion() + 1, service.readVersion(book.getId()));
+
+        service.removeRelation(book.getId(), BookRelation.KEYWORDS, FINANCE, version -> true);
+        service.removeRelation(book.getId(), BookRelation.KEYWORDS, NOT_FOUND, version -> true);
+        assertEquals(0, keywordService.countBooks(finance.getId()));
+        assertEquals(book.getVersion() + 2, service.readVersion(book.getId()));
+    }
+
     @Test
     void update_throwsException_whenFullTitleDoesNotContainName() {
         BookDto dto = landscapesOfIdentity();
@@ -11,11 +11,16 @@ import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyLinkedException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Keyword;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
@@ -38,27 +43,32 @@ class KeywordServiceTest extends AbstractIntegrationTest {
     void createBulk_isSuccessful() {
         KeywordsDto dto = new KeywordsDto();
         dto.setKeywords(Set.of(ART, ARCHITECTURE));
-        List<Keyword> bulk = service.createBulk(dto);
+        List<BulkItem> bulk = new ArrayList<>(service.createBulk(dto));
 
-        bulk.sort(Comparator.comparing(Keyword::getName));
+        bulk.sort(Comparator.comparing(BulkItem::name));
         assertEquals(2, bulk.size());
-        assertNotNull(bulk.get(0).getId());
-        assertNotNull(bulk.get(1).getId());
-        assertEquals(ARCHITECTURE, bulk.get(0).getName());
-        assertEquals(ART, bulk.get(1).getName());
+        assertNotNull(bulk.get(0).id());
+        assertNotNull(bulk.get(1).id());
+        assertEquals(ARCHITECTURE, bulk.get(0).name());
+        assertEquals(ART, bulk.get(1).name());
+        assertTrue(bulk.get(0).created());
+        assertTrue(bulk.get(1).created());
     }
 
     @Test
-    void createBulk_throwsException_whenOneAuthorExistsCaseInsensitive() {
+    void createBulk_reportsExisting_whenOneKeywordExistsCaseInsensitive() {
         KeywordsDto dto = new KeywordsDto();
         dto.setKeywords(Set.of(ART, ARCHITECTURE));
         service.createBulk(dto);
 
-        KeywordsDto fail = new KeywordsDto();
-        fail.setKeywords(Set.of(ARCHITECTURE.toUpperCase()));
-        EntityAlreadyExistException ex = assertThrows(EntityAlreadyExistException.class, () -> service.createBulk(fail));
+        KeywordsDto next = new KeywordsDto();
+        next.setKeywords(Set.of(ARCHITECTURE.toUpperCase(), FINANCE));
+        Map<String, BulkItem> bulk = service.createBulk(next).stream()
+                .collect(Collectors.toMap(BulkItem::name, Function.identity()));
 
-        assertEquals(String.format(ENTITY_ALREADY_HAS_A, KEYWORD, ARCHITECTURE), ex.getMessage());
+        assertEquals(Set.of(ARCHITECTURE, FINANCE), bulk.keySet());
+        assertFalse(bulk.get(ARCHITECTURE).created());
+        assertTrue(bulk.get(FINANCE).created());
     }
 
     @Test
@@ -103,6 +113,19 @@ class KeywordServiceTest extends AbstractIntegrationTest {
         assertEquals(keyword.getBooks(), existing.getBooks());
     }
 
+    @Test
+    void createAllIfNotExisting_isSuccessful_whenSomeKeywordsExist() {
+        Keyword art = service.create(new KeywordDto(ART));
+
+        Map<String, Keyword> keywords = service.createAllIfNotExisting(Set.of(ART.toUpperCase(), "estonian art", FINANCE));
+
+        assertEquals(Set.of(ART.toUpperCase(), "estonian art", FINANCE), keywords.keySet());
+        assertEquals(art.getId(), keywords.get(ART.toUpperCase()).getId());
+        assertEquals("Estonian Art", keywords.get("estonian art").getName());
+        assertNotNull(keywords.get(FINANCE).getId());
+        assertEquals(keywords.get(FINANCE).getId(), service.createIfNotExisting(new KeywordDto(FINANCE)).getId());
+    }
+
     @Test
     @Transactional
     void read_isSuccessful() {
@@ -11,11 +11,16 @@ import ro.george.postelnicu.geolibrary.exception.EntityAlreadyExistException;
 import ro.george.postelnicu.geolibrary.exception.EntityAlreadyLinkedException;
 import ro.george.postelnicu.geolibrary.exception.EntityNotFoundException;
 import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BulkItem;
 import ro.george.postelnicu.geolibrary.model.Language;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static ro.george.postelnicu.geolibrary.DataCommon.*;
@@ -38,27 +43,32 @@ class LanguageServiceTest extends AbstractIntegrationTest {
     void createBulk_isSuccessful() {
         LanguagesDto dto = new LanguagesDto();
         dto.setLanguages(Set.of(ENGLISH, FRENCH));
-        List<Language> bulk = service.createBulk(dto);
+        List<BulkItem> bulk = new ArrayList<>(service.createBulk(dto));
 
-        bulk.sort(Comparator.comparing(Language::getName));
+        bulk.sort(Comparator.comparing(BulkItem::name));
         assertEquals(2, bulk.size());
-        assertNotNull(bulk.get(0).getId());
-        assertNotNull(bulk.get(1).getId());
-        assertEquals(ENGLISH, bulk.get(0).getName());
-        assertEquals(FRENCH, bulk.get(1).getName());
+        assertNotNull(bulk.get(0).id());
+        assertNotNull(bulk.get(1).id());
+        assertEquals(ENGLISH, bulk.get(0).name());
+        assertEquals(FRENCH, bulk.get(1).name());
+        assertTrue(bulk.get(0).created());
+        assertTrue(bulk.get(1).created());
     }
 
     @Test
-    void createBulk_throwsException_whenOneLanguageExistsCaseInsensitive() {
+    void createBulk_reportsExisting_whenOneLanguageExistsCaseInsensitive() {
         LanguagesDto dto = new LanguagesDto();
         dto.setLanguages(Set.of(ENGLISH, FRENCH));
         service.createBulk(dto);
 
-        LanguagesDto fail = new LanguagesDto();
-        fail.setLanguages(Set.of(FRENCH.toUpperCase()));
-        EntityAlreadyExistException ex = assertThrows(EntityAlreadyExistException.class, () -> service.createBulk(fail));
+        LanguagesDto next = new LanguagesDto();
+        next.setLanguages(Set.of(FRENCH.toUpperCase(), ESTONIAN));
+        Map<String, BulkItem> bulk = service.createBulk(next).stream()
+                .collect(Collectors.toMap(BulkItem::name, Function.identity()));
 
-        assertEquals(String.format(ENTITY_ALREADY_HAS_A, LANGUAGE, FRENCH), ex.getMessage());
+        assertEquals(Set.of(FRENCH, ESTONIAN), bulk.keySet());
+        assertFalse(bulk.get(FRENCH).created());
+        assertTrue(bulk.get(ESTONIAN).created());
     }
 
     @Test
@@ -0,0 +1,105 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.BookRelation;
+import ro.george.postelnicu.geolibrary.model.Keyword;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=hibernate-cache.conf",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SecondLevelCacheTest extends AbstractIntegrationTest {
+    private final BookService bookService;
+    private final KeywordService keywordService;
+    private final SessionFactory sessionFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    SecondLevelCacheTest(BookService bookService, KeywordService keywordService,
+                         EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager) {
+        this.bookService = bookService;
+        this.keywordService = keywordService;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        // the cleanup scripts delete the rows behind Hibernate's back
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Test
+    void read_shouldNotQueryTheDatabase_whenTheBookAndItsRelationsAreCached() {
+        Book book = bookService.create(landscapesOfIdentity());
+        readKeywordNames(book.getId());
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        readKeywordNames(book.getId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void read_shouldNotQueryTheDatabase_whenTheKeywordIsCached() {
+        Keyword finance = keywordService.createAllIfNotExisting(Set.of(FINANCE)).get(FINANCE);
+        keywordService.read(finance.getId());
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        Keyword cached = keywordService.read(finance.getId());
+
+        assertEquals(FINANCE, cached.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void read_shouldFollowWritesThatBypassHibernate() {
+        Book book = bookService.create(landscapesOfIdentity());
+        readKeywordNames(book.getId());
+
+        bookService.addRelation(book.getId(), BookRelation.KEYWORDS, FINANCE, version -> true);
+        assertTrue(readKeywordNames(book.getId()).contains(FINANCE));
+        assertEquals(book.getVersion() + 1, readVersion(book.getId()));
+
+        Keyword finance = keywordService.createAllIfNotExisting(Set.of(FINANCE)).get(FINANCE);
+        keywordService.update(finance.getId(), new KeywordDto("Economics"));
+        Set<String> names = readKeywordNames(book.getId());
+        assertTrue(names.contains("Economics"));
+        assertFalse(names.contains(FINANCE));
+        assertEquals(book.getVersion() + 2, readVersion(book.getId()));
+    }
+
+    private long readVersion(Long id) {
+        return transactionTemplate.execute(status -> bookService.read(id).getVersion());
+    }
+
+    private Set<String> readKeywordNames(Long id) {
+        return transactionTemplate.execute(status -> bookService.read(id).getKeywords().stream()
+                .map(Keyword::getName)
+                .collect(Collectors.toSet()));
+    }
+}
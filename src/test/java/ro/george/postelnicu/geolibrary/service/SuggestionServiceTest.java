@@ -0,0 +1,93 @@
+package ro.george.postelnicu.geolibrary.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.dto.author.AuthorDto;
+import ro.george.postelnicu.geolibrary.dto.keyword.KeywordDto;
+import ro.george.postelnicu.geolibrary.model.Author;
+import ro.george.postelnicu.geolibrary.model.Book;
+import ro.george.postelnicu.geolibrary.model.Keyword;
+import ro.george.postelnicu.geolibrary.model.Suggestion;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ro.george.postelnicu.geolibrary.DataCommon.*;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SuggestionServiceTest extends AbstractIntegrationTest {
+    private final SuggestionService service;
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final KeywordService keywordService;
+    private final Statistics statistics;
+    private Book landscapes;
+
+    @Autowired
+    SuggestionServiceTest(SuggestionService service, BookService bookService, AuthorService authorService,
+                          KeywordService keywordService, EntityManagerFactory entityManagerFactory) {
+        this.service = service;
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.keywordService = keywordService;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        landscapes = bookService.create(landscapesOfIdentity());
+        bookService.create(conflictsAndAdaptations());
+        bookService.create(oneHundredFiftyHouses());
+    }
+
+    @Test
+    void suggest_shouldRankTheNamesStartingWithThePrefix_byTheirBooks() {
+        assertEquals(List.of(new Suggestion(KAJA, 2), new Suggestion(KADI, 1)), service.suggestAuthors("KA", 10));
+        assertEquals(List.of(new Suggestion(ART, 2), new Suggestion(ARCHITECTURE, 1)),
+                service.suggestKeywords("ar", 10));
+        assertEquals(List.of(new Suggestion(ENGLISH, 3)), service.suggestLanguages("", 10));
+        assertEquals(List.of(new Suggestion(ART_MUSEUM_OF_ESTONIA, 2)), service.suggestPublishers("art ", 10));
+        assertEquals(List.of(new Suggestion(KAJA, 2)), service.suggestAuthors("ka", 1));
+        assertEquals(List.of(), service.suggestAuthors(NOT_FOUND, 10));
+    }
+
+    @Test
+    void suggest_shouldFollowTheWrites() {
+        Author kadi = landscapes.getAuthors().stream()
+                .filter(author -> author.getName().equals(KADI))
+                .findFirst().orElseThrow();
+        assertEquals(List.of(new Suggestion(KADI, 1)), service.suggestAuthors("kadi", 10));
+
+        authorService.update(kadi.getId(), new AuthorDto("Kadiri Polli"));
+
+        assertEquals(List.of(new Suggestion("Kadiri Polli", 1)), service.suggestAuthors("kadi", 10));
+    }
+
+    @Test
+    void suggest_shouldRankAllTheNames_whenThePrefixIsEmpty() {
+        assertEquals(List.of(new Suggestion(KAJA, 2), new Suggestion("Anu Allas", 1)), service.suggestAuthors("", 2));
+        assertEquals(List.of(new Suggestion(KAJA, 2)), service.suggestAuthors(null, 1));
+        assertEquals(List.of(), service.suggestAuthors("", 0));
+    }
+
+    @Test
+    void suggest_shouldReloadOnlyTheNames_theWriteChanged() {
+        service.suggestAuthors("", 10);
+        service.suggestKeywords("", 10);
+        Keyword art = keywordService.createAllIfNotExisting(List.of(ART)).get(ART);
+
+        keywordService.update(art.getId(), new KeywordDto("Fine Art"));
+        statistics.clear();
+
+        assertEquals(List.of(new Suggestion(KAJA, 2)), service.suggestAuthors("", 1));
+        assertEquals(0, statistics.getQueryExecutionCount());
+        assertEquals(List.of(new Suggestion("Fine Art", 2)), service.suggestKeywords("fine", 10));
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+}
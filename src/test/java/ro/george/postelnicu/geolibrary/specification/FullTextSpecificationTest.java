@@ -0,0 +1,102 @@
+package ro.george.postelnicu.geolibrary.specification;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.Location;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import ro.george.postelnicu.geolibrary.AbstractIntegrationTest;
+import ro.george.postelnicu.geolibrary.model.BookSearchCriteria;
+import ro.george.postelnicu.geolibrary.repository.BookSpecificationRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ro.george.postelnicu.geolibrary.util.StringUtil.tokenize;
+
+/**
+ * Renders the searches with the MySQL dialect, which registers MATCH ... AGAINST, while still running on H2; H2 cannot
+ * execute the full-text predicate, so only the SQL Hibernate prepares is checked.
+ */
+@TestPropertySource(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ro.george.postelnicu.geolibrary.specification.FullTextSpecificationTest$RecordingInspector"
+})
+class FullTextSpecificationTest extends AbstractIntegrationTest {
+    private static final String MATCH = "match(b1_0.name, b1_0.full_title, b1_0.description)";
+
+    private final BookSpecificationRepository repository;
+    private final Flyway flyway;
+
+    @Autowired
+    FullTextSpecificationTest(BookSpecificationRepository repository, Flyway flyway) {
+        this.repository = repository;
+        this.flyway = flyway;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        RecordingInspector.statements.clear();
+    }
+
+    @Test
+    void toPredicate_shouldMatchAgainstEveryTokenAsARequiredPrefix_andRankByIt() {
+        String sql = render("Estonian art");
+
+        assertTrue(sql.contains(STR."where \{MATCH} against('+estonian* +art*' in boolean mode)>?"), sql);
+        assertTrue(sql.contains(STR."order by \{MATCH} against('+estonian* +art*' in boolean mode) desc"), sql);
+    }
+
+    @Test
+    void toPredicate_shouldKeepTheOperatorsTypedByTheUser_outOfAgainst() {
+        String sql = render("-soviet \"art museum\" @3 ~era +1940* (o'brien) <estonia>");
+
+        assertTrue(sql.contains(
+                "against('+soviet* +art* +museum* +3* +era* +1940* +o* +brien* +estonia*' in boolean mode)"), sql);
+    }
+
+    @Test
+    void toBooleanModeQuery_shouldDropEveryBooleanModeOperator() {
+        assertEquals("+art* +museum*", FullTextSpecification.toBooleanModeQuery(tokenize("+art -\"museum\"")));
+        assertEquals("+art* +8*", FullTextSpecification.toBooleanModeQuery(tokenize("~art* @8 <>()")));
+        assertEquals("", FullTextSpecification.toBooleanModeQuery(tokenize("-~@\"<>()*+'")));
+    }
+
+    @Test
+    void migrations_shouldLeaveTheFullTextIndexOutOfTheTestDatabase() {
+        assertTrue(Arrays.stream(flyway.getConfiguration().getLocations())
+                .map(Location::getDescriptor)
+                .noneMatch(location -> location.contains("fulltext")));
+        assertTrue(Arrays.stream(flyway.info().applied())
+                .noneMatch(migration -> migration.getScript().toLowerCase().contains("fulltext")));
+    }
+
+    private String render(String query) {
+        BookSearchCriteria searchCriteria = new BookSearchCriteria(null, null, null, null, null,
+                null, null, null,
+                null, null, null,
+                null, null, null, query, null);
+        assertThrows(DataAccessException.class, () -> repository.searchIds(searchCriteria, PageRequest.of(0, 10)));
+        return RecordingInspector.statements.stream()
+                .filter(sql -> sql.contains("against("))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}